@@ -0,0 +1,81 @@
+package com.fastned.solarcharging.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings
+ *
+ * mightContain never returns false for a value which was put, and returns true for a value which was not put with
+ * a probability close to the false positive rate it was sized for. Values cannot be removed: a filter with stale
+ * values must be rebuilt.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates a Bloom filter sized for the given amount of values and false positive rate
+     *
+     * @param expectedInsertions    The amount of values expected to be put
+     * @param falsePositiveRate     The expected probability of a false positive, between 0 and 1 (exclusive)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if ( falsePositiveRate <= 0 || falsePositiveRate >= 1 )
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1");
+
+        final long insertions = Math.max(expectedInsertions, 1);
+        final long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = new AtomicLongArray(Math.toIntExact(Math.max(optimalBits / Long.SIZE + 1, 1)));
+        bitCount = (long) bits.length() * Long.SIZE;
+        hashCount = (int) Math.max(Math.round((double) bitCount / insertions * Math.log(2)), 1);
+    }
+
+    public void put(String value) {
+        final long hash = hash(value);
+        final long step = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = Math.floorMod(hash + i * step, bitCount);
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+
+            long current;
+            while ( ((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask) ) {
+                // retries until the bit is set, by this or by another thread
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        final long hash = hash(value);
+        final long step = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = Math.floorMod(hash + i * step, bitCount);
+            if ( (bits.get((int) (bit >>> 6)) & (1L << bit)) == 0 )
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters of the value, followed by a final mix of its bits
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -11,6 +11,7 @@ public final class Constants {
     public static final String NOT_FOUND_STATE = "Requested state is not found";
     public static final String NOT_FOUND_NETWORK = "Requested network is not found";
     public static final String NOT_FOUND_USER = "Requested user is not found";
+    public static final String NOT_FOUND_JOB = "Requested ingestion job is not found";
     public static final String NOT_FOUND_USERNAME = "User with username of {0} is not found";
     public static final String ALREADY_EXISTS = "Requested element is already exists";
     public static final String ALREADY_EXISTS_SOLAR_GRID = "SolarGrid with the same name is already exists";
@@ -36,9 +37,16 @@ public final class Constants {
     public static final String JWT_EXPIRED = "JWT token is expired: {}";
     public static final String JWT_UNSUPPORTED = "JWT token is unsupported: {}";
     public static final String JWT_EMPTY = "JWT claims string is empty: {}";
+    public static final String JWT_REVOKED = "JWT token is revoked: {}";
+    public static final String REVOKED_USER_TOKENS = "User tokens are revoked";
+    public static final String LOGGED_OUT = "User is logged out";
     public static final String SUCCESS = "Success";
 
     public static final String INVALID_FILE = "Invalid or empty file";
+    public static final String INVALID_CURSOR = "Invalid pagination cursor";
+    public static final String SERVICE_BUSY = "Service is busy, try again later";
+    public static final String INGESTION_BUSY = "Too many ingestion jobs in progress, try again later";
+    public static final String AUTHENTICATION_BUSY = "Too many logins and signups in progress, try again later";
 
 
 }
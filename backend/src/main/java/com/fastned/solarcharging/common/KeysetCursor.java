@@ -0,0 +1,66 @@
+package com.fastned.solarcharging.common;
+
+import com.fastned.solarcharging.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor of a keyset (seek) pagination ordered by id
+ *
+ * The cursor carries the id of the last element of a slice, and the next slice is fetched with "id > :afterId",
+ * so a deep slice costs as much as the first one and no count query is needed. Clients must treat the token as
+ * opaque, since its format may change.
+ */
+public final class KeysetCursor {
+
+    public static final String DEFAULT_SIZE = "20";
+    public static final int MAX_SIZE = 1000;
+
+    private static final String PREFIX = "id:";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Encodes the cursor following the given id
+     *
+     * @param lastId    The id of the last element of a slice
+     * @return cursor token
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the given cursor token
+     *
+     * @param cursor    The cursor token, empty for the first slice
+     * @return The id after which the slice starts
+     * @throws InvalidCursorException in case the token was not created by encode
+     */
+    public static long decode(String cursor) {
+        if ( cursor == null || cursor.isBlank() )
+            return 0;
+
+        try {
+            final String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if ( !value.startsWith(PREFIX) )
+                throw new InvalidCursorException(Constants.INVALID_CURSOR);
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(Constants.INVALID_CURSOR, e);
+        }
+    }
+
+    /**
+     * Limits the given slice size to [1, MAX_SIZE]
+     *
+     * @param size
+     * @return slice size
+     */
+    public static int size(int size) {
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+}
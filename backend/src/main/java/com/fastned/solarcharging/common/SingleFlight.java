@@ -0,0 +1,80 @@
+package com.fastned.solarcharging.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent executions of the same key: the first caller (the leader) runs the computation, and the
+ * callers which arrive while it is in flight wait for its CompletableFuture instead of running it again
+ *
+ * Nothing is kept after the computation completes, so a later caller runs it again. The calls are published as
+ * the "singleflight.calls" metric, with the tags name and result=leader or result=collapsed.
+ */
+public final class SingleFlight<K, V> {
+
+    public static final String METRIC_NAME = "singleflight.calls";
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter collapsed;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder(METRIC_NAME)
+                .description("Executions of coalesced computations")
+                .tag("name", name)
+                .tag("result", "leader")
+                .register(meterRegistry);
+        this.collapsed = Counter.builder(METRIC_NAME)
+                .description("Executions of coalesced computations")
+                .tag("name", name)
+                .tag("result", "collapsed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the computation of the given key, or waits for the one already in flight
+     *
+     * @param key
+     * @param computation
+     * @return the result of the computation
+     * @throws RuntimeException thrown by the computation, to the leader and to the collapsed callers
+     */
+    public V execute(K key, Supplier<V> computation) {
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> current = inFlight.putIfAbsent(key, flight);
+        if ( current != null ) {
+            collapsed.increment();
+            return await(current);
+        }
+
+        leaders.increment();
+        try {
+            final V result = computation.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if ( e.getCause() instanceof RuntimeException cause )
+                throw cause;
+            if ( e.getCause() instanceof Error cause )
+                throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.fastned.solarcharging.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read-only method whose transaction may read from the replica, when ReadReplicaDataSourceConfig is enabled
+ *
+ * All the other transactions read from the primary, including the read-only ones of the repositories, so only the
+ * reads which tolerate the replication lag are marked: never a security check, a result kept in a cache, a read
+ * followed by a write, or a read which loads cached entities. The method must start its transaction, since the
+ * connection of an ongoing one is already taken.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromReplica {
+}
@@ -0,0 +1,78 @@
+package com.fastned.solarcharging.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration file used for sending the reads marked with ReadFromReplica to a PostgreSQL replica, enabled when
+ * app.datasource.replica.jdbc-url is set. Otherwise the single spring.datasource is used for everything.
+ *
+ * The primary pool is configured by spring.datasource and spring.datasource.hikari, as without a replica. The replica
+ * pool takes the driver and credentials of the primary, overridden by the Hikari properties of
+ * app.datasource.replica. Both pools publish the hikaricp metrics, tagged with their pool names. The methods marked
+ * with ReadFromReplica are advised before their transaction starts, so it can be routed to the replica.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "jdbc-url")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        final HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        final HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                                     @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                                     @Value("${app.datasource.routing.maxReplicaLagMs:5000}") long maxReplicaLagMs,
+                                                                     MeterRegistry meterRegistry) {
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource, maxReplicaLagMs, meterRegistry);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor readFromReplicaAdvisor() {
+        final DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ReadFromReplica.class),
+                (MethodInterceptor) ReadReplicaRoutingDataSource::readFromReplica);
+        // outside of the transaction advisor, which has the lowest precedence
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,156 @@
+package com.fastned.solarcharging.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataSource which sends the connections of the read-only transactions started by a method marked with
+ * ReadFromReplica to the replica, and all the others to the primary
+ *
+ * The replication lag is checked periodically, by comparing the position replayed by the replica with the current
+ * position of the primary. While it is above the allowed lag, or the replica cannot be reached or is not streaming
+ * from the primary, read-only transactions fall back to the primary. The amount of connections taken by each
+ * route is counted in datasource.routing.connections, and the last measured lag is published in
+ * datasource.replica.lag.
+ *
+ * It must be wrapped in a LazyConnectionDataSourceProxy, since the read-only flag of a transaction is only set
+ * after its connection is requested.
+ */
+@Slf4j(topic = "ReadReplicaRoutingDataSource")
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    /**
+     * Current WAL position of the primary
+     */
+    static final String PRIMARY_WAL_POSITION_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+    /**
+     * Replication lag in ms: zero when the replica has replayed the given position of the primary, and no row when
+     * its WAL receiver is stopped, or when it is not a standby
+     */
+    static final String REPLICA_LAG_QUERY = """
+            SELECT CASE WHEN pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0
+                        ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint END
+            FROM pg_stat_wal_receiver
+            WHERE status = 'streaming'
+            """;
+
+    /**
+     * Set while a method marked with ReadFromReplica runs on the thread
+     */
+    private static final ThreadLocal<Boolean> REPLICA_READS = new ThreadLocal<>();
+
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxReplicaLagMs;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter fallbackConnections;
+
+    private volatile boolean replicaAvailable = true;
+    private volatile long replicaLagMs;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxReplicaLagMs, MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryJdbcTemplate = new JdbcTemplate(primary);
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.maxReplicaLagMs = maxReplicaLagMs;
+        this.primaryConnections = routeCounter(meterRegistry, "primary");
+        this.replicaConnections = routeCounter(meterRegistry, "replica");
+        this.fallbackConnections = routeCounter(meterRegistry, "fallback");
+        Gauge.builder("datasource.replica.lag", this, dataSource -> dataSource.replicaLagMs)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("datasource.routing.connections")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the given invocation of a method marked with ReadFromReplica, allowing its read-only transaction to read
+     * from the replica
+     *
+     * @param invocation
+     * @return The result of the invocation
+     */
+    static Object readFromReplica(MethodInvocation invocation) throws Throwable {
+        final Boolean previous = REPLICA_READS.get();
+        REPLICA_READS.set(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } finally {
+            if ( previous == null )
+                REPLICA_READS.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if ( !TransactionSynchronizationManager.isCurrentTransactionReadOnly() || REPLICA_READS.get() == null ) {
+            primaryConnections.increment();
+            return Route.PRIMARY;
+        }
+        if ( !replicaAvailable ) {
+            fallbackConnections.increment();
+            return Route.PRIMARY;
+        }
+        replicaConnections.increment();
+        return Route.REPLICA;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    /**
+     * Measures the replication lag, and routes the read-only transactions according to it
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.routing.lagCheckIntervalMs:1000}")
+    public void checkReplicaLag() {
+        try {
+            // read before the replay position, so a replica which is up to date is never behind it
+            final String primaryPosition = primaryJdbcTemplate.queryForObject(PRIMARY_WAL_POSITION_QUERY, String.class);
+            final List<Long> lagMs = replicaJdbcTemplate.queryForList(REPLICA_LAG_QUERY, Long.class, primaryPosition);
+            if ( lagMs.isEmpty() || lagMs.get(0) == null )
+                recordReplicaFailure(new IllegalStateException("The replica is not streaming from the primary"));
+            else
+                recordReplicaLag(lagMs.get(0));
+        } catch (Exception e) {
+            recordReplicaFailure(e);
+        }
+    }
+
+    void recordReplicaLag(long lagMs) {
+        replicaLagMs = lagMs;
+        final boolean available = lagMs <= maxReplicaLagMs;
+        if ( available != replicaAvailable )
+            log.warn("The replica lag is {} ms, read-only transactions are routed to the {}", lagMs, available ? "replica" : "primary");
+        replicaAvailable = available;
+    }
+
+    void recordReplicaFailure(Exception e) {
+        if ( replicaAvailable )
+            log.warn("The replica lag cannot be measured, read-only transactions are routed to the primary", e);
+        replicaAvailable = false;
+    }
+}
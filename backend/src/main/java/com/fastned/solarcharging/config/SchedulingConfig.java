@@ -0,0 +1,12 @@
+package com.fastned.solarcharging.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration file used for enabling the scheduled maintenance tasks, like the pruning of expired revoked tokens
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
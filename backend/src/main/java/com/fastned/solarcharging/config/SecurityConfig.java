@@ -2,7 +2,9 @@ package com.fastned.solarcharging.config;
 
 import com.fastned.solarcharging.security.AuthEntryPointJwt;
 import com.fastned.solarcharging.security.AuthTokenFilter;
+import com.fastned.solarcharging.security.TimedPasswordEncoder;
 import com.fastned.solarcharging.security.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,6 +31,7 @@ public class SecurityConfig {
 
     private final UserDetailsServiceImpl userDetailsService;
     private final AuthEntryPointJwt authEntryPointJwt;
+    private final MeterRegistry meterRegistry;
 
     private static final String[] AUTH_WHITELIST = {
             "/api/v1/auth/**",
@@ -58,7 +61,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     @Bean
@@ -5,15 +5,19 @@ import com.fastned.solarcharging.dto.request.UserRequest;
 import com.fastned.solarcharging.dto.response.ApiResponse;
 import com.fastned.solarcharging.dto.response.CommandResponse;
 import com.fastned.solarcharging.dto.response.JwtResponse;
+import com.fastned.solarcharging.security.JwtUtils;
+import com.fastned.solarcharging.security.PasswordHashingExecutor;
 import com.fastned.solarcharging.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 import static com.fastned.solarcharging.common.Constants.SUCCESS;
 
@@ -25,30 +29,46 @@ public class AuthController {
 
     private final Clock clock;
     private final AuthService authService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     /**
-     * Authenticates users by their credentials
+     * Authenticates users by their credentials. The password is verified on the password hashing pool, and the
+     * request thread is released meanwhile.
      *
      * @param request
      * @return JwtResponse
      */
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<JwtResponse>> login(@Valid @RequestBody LoginRequest request) {
-        final JwtResponse response = authService.login(request);
-        return ResponseEntity.ok(new ApiResponse<>( SUCCESS, response));
+    public CompletableFuture<ResponseEntity<ApiResponse<JwtResponse>>> login(@Valid @RequestBody LoginRequest request) {
+        return passwordHashingExecutor.submit(() -> authService.login(request))
+                .thenApply(response -> ResponseEntity.ok(new ApiResponse<>( SUCCESS, response)));
     }
 
     /**
-     * Registers users using their credentials and user info
+     * Registers users using their credentials and user info. The password is hashed on the password hashing pool,
+     * and the request thread is released meanwhile.
      *
      * @param request
      * @return id of the registered user
      */
     @PostMapping("/signup")
-    public ResponseEntity<ApiResponse<CommandResponse>> signup(@Valid @RequestBody UserRequest request) {
-        final CommandResponse response = authService.signup(request);
+    public CompletableFuture<ResponseEntity<ApiResponse<CommandResponse>>> signup(@Valid @RequestBody UserRequest request) {
+        return passwordHashingExecutor.submit(() -> authService.signup(request))
+                .thenApply(response -> ResponseEntity
+                        .status(HttpStatus.CREATED)
+                        .body(new ApiResponse<>( SUCCESS, response)));
+    }
+
+    /**
+     * Logs out by revoking the token of the request
+     *
+     * @param authorization The Authorization header, with the Bearer token
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        authService.logout(JwtUtils.parseBearerToken(authorization));
         return ResponseEntity
-                .status(HttpStatus.CREATED)
-                .body(new ApiResponse<>( SUCCESS, response));
+                .status(HttpStatus.NO_CONTENT)
+                .build();
     }
 }
@@ -0,0 +1,46 @@
+package com.fastned.solarcharging.controller;
+
+import com.fastned.solarcharging.dto.response.ApiResponse;
+import com.fastned.solarcharging.dto.response.IngestionJobResponse;
+import com.fastned.solarcharging.dto.response.UserResponse;
+import com.fastned.solarcharging.service.UserService;
+import com.fastned.solarcharging.service.ingestion.IngestionJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import static com.fastned.solarcharging.common.Constants.SUCCESS;
+
+/**
+ * Implements the endpoints to follow the ingestion jobs of a user
+ */
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final UserService userService;
+    private final IngestionJobService ingestionJobService;
+
+    /**
+     * Fetches the progress of an ingestion job of the current user by the given id
+     *
+     * @param id
+     * @param auth  The user credentials
+     * @return IngestionJobResponse
+     */
+    @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<IngestionJobResponse>> findById(@PathVariable String id, Authentication auth) {
+        UserDetails user = (UserDetails)auth.getPrincipal();
+
+        UserResponse userResponse = userService.findByPrincipal(user);
+
+        final IngestionJobResponse response = ingestionJobService.findById(id, userResponse.getId());
+        return ResponseEntity.ok(new ApiResponse<>( SUCCESS, response));
+    }
+}
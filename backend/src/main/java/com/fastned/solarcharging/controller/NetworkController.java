@@ -1,18 +1,15 @@
 package com.fastned.solarcharging.controller;
 
+import com.fastned.solarcharging.common.KeysetCursor;
 import com.fastned.solarcharging.dto.request.LoadFileRequest;
 import com.fastned.solarcharging.dto.request.NetworkRequest;
-import com.fastned.solarcharging.dto.request.SolarGridRequest;
 import com.fastned.solarcharging.dto.response.*;
 import com.fastned.solarcharging.service.NetworkService;
-import com.fastned.solarcharging.service.SolarGridService;
 import com.fastned.solarcharging.service.UserService;
-import com.fastned.solarcharging.service.util.SolarGridUtils;
+import com.fastned.solarcharging.service.ingestion.IngestionJobService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.json.JsonParser;
-import org.springframework.boot.json.JsonParserFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -22,13 +19,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.io.IOException;
+import java.net.URI;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.List;
-import java.util.Map;
 
 import static com.fastned.solarcharging.common.Constants.SUCCESS;
 
@@ -41,40 +36,35 @@ public class NetworkController {
 
     private final Clock clock;
     private final NetworkService networkService;
-
-    private final SolarGridService solarGridService;
     private final UserService userService;
+    private final IngestionJobService ingestionJobService;
 
+    /**
+     * Loads a network file in background. The SolarGrids are parsed one at a time while they are persisted, so
+     * the file is never fully loaded in memory.
+     *
+     * @param file                  The network file, with an array of SolarGrids
+     * @param body                  The load parameters
+     * @param auth                  The user credentials
+     * @return IngestionJobResponse of the queued job, which can be followed on /api/v1/jobs/{id}
+     */
     @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
     @PostMapping("/load-file")
-    public ResponseEntity<ApiResponse<String>>  handleSolarGridStateFileUpload(@RequestPart("file") MultipartFile file,
-                                                                               @RequestPart("body") LoadFileRequest body,
-                                                                               Authentication auth,
-                                                                               RedirectAttributes redirectAttributes)  {
+    public ResponseEntity<ApiResponse<IngestionJobResponse>>  handleSolarGridStateFileUpload(@RequestPart("file") MultipartFile file,
+                                                                                             @RequestPart("body") LoadFileRequest body,
+                                                                                             Authentication auth)  {
         if ( file == null || file.isEmpty() ) {
-            return ResponseEntity.ok(new ApiResponse<>( com.fastned.solarcharging.common.Constants.INVALID_FILE, "File empty"));
+            return ResponseEntity.ok(new ApiResponse<>( com.fastned.solarcharging.common.Constants.INVALID_FILE, null));
         }
-        final JsonParser springParser = JsonParserFactory.getJsonParser();
-
-        String fileContent = "";
-
-        try {
-            fileContent = new String( file.getInputStream().readAllBytes() );
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-                List<Object> list = springParser.parseList(fileContent);
-
         UserDetails user = (UserDetails)auth.getPrincipal();
 
-        UserResponse userResponse = userService.findByName(user.getUsername());
+        UserResponse userResponse = userService.findByPrincipal(user);
 
-        NetworkCreateResponse response = SolarGridUtils.processIncomingNetworkFile(networkService, solarGridService, list, userResponse, body.getTimeElapsedDays());
+        final IngestionJobResponse job = ingestionJobService.submitFile(file, body.isBulkMode(), userResponse, body.getTimeElapsedDays());
 
-        redirectAttributes.addFlashAttribute("message",
-                "You successfully uploaded " + file.getOriginalFilename() + "!");
-
-        return ResponseEntity.ok(new ApiResponse<>( SUCCESS, response.toString()));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/jobs/" + job.getId()))
+                .body(new ApiResponse<>( SUCCESS, job));
     }
 
 
@@ -118,6 +108,22 @@ public class NetworkController {
         return ResponseEntity.ok(new ApiResponse<>( SUCCESS, response));
     }
 
+    /**
+     * Fetches a slice of all Networks ordered by id, using keyset pagination instead of the page number. The first
+     * slice is fetched with an empty cursor, and the following ones with the nextCursor of the previous slice.
+     *
+     * @param cursor    The cursor of the previous slice
+     * @param size      The maximum amount of Networks of the slice
+     * @return CursorPage of NetworkResponse
+     */
+    @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
+    @GetMapping(params = "cursor")
+    public ResponseEntity<ApiResponse<CursorPage<NetworkResponse>>> findAll(@RequestParam String cursor,
+                                                                     @RequestParam(defaultValue = KeysetCursor.DEFAULT_SIZE) int size) {
+        final CursorPage<NetworkResponse> response = networkService.findAll(cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>( SUCCESS, response));
+    }
+
     /**
      * Creates a new solar grid using the given request parameters
      *
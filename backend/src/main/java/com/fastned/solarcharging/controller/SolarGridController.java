@@ -1,5 +1,7 @@
 package com.fastned.solarcharging.controller;
 
+import com.fastned.solarcharging.common.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fastned.solarcharging.dto.request.SolarGridRequest;
 import com.fastned.solarcharging.dto.response.*;
 import com.fastned.solarcharging.service.NetworkService;
@@ -11,9 +13,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Clock;
 import java.time.Instant;
@@ -39,6 +43,7 @@ public class SolarGridController {
 
     private final SolarGridService solarGridService;
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Fetches a single SolarGrid by the given id
@@ -66,6 +71,37 @@ public class SolarGridController {
         return ResponseEntity.ok(new ApiResponse<>( SUCCESS, response));
     }
 
+    /**
+     * Streams all SolarGrids of the given User id, in the same format as findByUserId. The SolarGrids are written
+     * to the response as they are read from a database cursor, so they are never collected in memory.
+     *
+     * @param id                    The User ID
+     * @return List of SolarGridResponse, written as a stream
+     */
+    @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
+    @GetMapping(value = "/users/{id}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamByUserId(@PathVariable long id) {
+        // checked before streaming, since the status cannot change once the response is started
+        solarGridService.checkNetworkExists(id);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponseStream.of(objectMapper, SUCCESS, generator ->
+                        solarGridService.exportByUserId(id, generator::writeObject)));
+    }
+
+    /**
+     * Fetches a page of the SolarGrids of the given User id
+     *
+     * @param id                    The User ID
+     * @param pageable
+     * @return Page of SolarGridResponse
+     */
+    @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
+    @GetMapping(value = "/users/{id}", params = "page")
+    public ResponseEntity<ApiResponse<Page<SolarGridResponse>>> findByUserId(@PathVariable long id, Pageable pageable) {
+        final Page<SolarGridResponse> response = solarGridService.findByUserId(id, pageable);
+        return ResponseEntity.ok(new ApiResponse<>( SUCCESS, response));
+    }
+
     /**
      * Fetches all SolarGrids based on the given parameters
      *
@@ -79,6 +115,22 @@ public class SolarGridController {
         return ResponseEntity.ok(new ApiResponse<>( SUCCESS, response));
     }
 
+    /**
+     * Fetches a slice of all SolarGrids ordered by id, using keyset pagination instead of the page number. The first
+     * slice is fetched with an empty cursor, and the following ones with the nextCursor of the previous slice.
+     *
+     * @param cursor    The cursor of the previous slice
+     * @param size      The maximum amount of SolarGrids of the slice
+     * @return CursorPage of SolarGridResponse
+     */
+    @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
+    @GetMapping(params = "cursor")
+    public ResponseEntity<ApiResponse<CursorPage<SolarGridResponse>>> findAll(@RequestParam String cursor,
+                                                                     @RequestParam(defaultValue = KeysetCursor.DEFAULT_SIZE) int size) {
+        final CursorPage<SolarGridResponse> response = solarGridService.findAll(cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>( SUCCESS, response));
+    }
+
     /**
      * Creates a new SolarGrids using the given request parameters
      *
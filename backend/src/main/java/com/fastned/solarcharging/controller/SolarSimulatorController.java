@@ -1,5 +1,6 @@
 package com.fastned.solarcharging.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fastned.solarcharging.common.Constants;
 import com.fastned.solarcharging.dto.request.NetworkRequest;
 import com.fastned.solarcharging.dto.request.SolarGridRequest;
@@ -7,20 +8,36 @@ import com.fastned.solarcharging.dto.response.*;
 import com.fastned.solarcharging.service.NetworkService;
 import com.fastned.solarcharging.service.SolarGridService;
 import com.fastned.solarcharging.service.UserService;
+import com.fastned.solarcharging.service.ingestion.IngestionJobService;
+import com.fastned.solarcharging.repository.SolarGridDailyEnergy;
+import com.fastned.solarcharging.service.simulation.AgeHistogram;
+import com.fastned.solarcharging.service.simulation.DatabaseSimulationService;
+import com.fastned.solarcharging.service.simulation.FleetSnapshotStore;
+import com.fastned.solarcharging.service.simulation.ProductionCurve;
+import com.fastned.solarcharging.service.simulation.ProductionLedgerService;
+import com.fastned.solarcharging.service.simulation.SimulationResultCache;
+import com.fastned.solarcharging.service.simulation.SimulationSource;
+import com.fastned.solarcharging.service.simulation.SolarSimulationEngine;
 import com.fastned.solarcharging.service.util.SolarGridUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.time.Clock;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -41,6 +58,19 @@ public class SolarSimulatorController {
 
     private final SolarGridService solarGridService;
     private final UserService userService;
+    private final FleetSnapshotStore fleetSnapshotStore;
+    private final ObjectMapper objectMapper;
+    private final IngestionJobService ingestionJobService;
+    private final SimulationResultCache simulationResultCache;
+    private final DatabaseSimulationService databaseSimulationService;
+    private final ProductionLedgerService productionLedgerService;
+
+    /**
+     * The results are private to the user, and must be revalidated with their ETag before being reused
+     */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final int MAX_OUTPUT_CURVE_POINTS = 100_000;
 
     /**
      * FAST-2: As a user, I want to be able to load my network into the application using an HTTP REST service.
@@ -49,26 +79,25 @@ public class SolarSimulatorController {
      *
      * @param solarGrid             The JSON Request Body with the SolarGrid representation
      * @param auth                  The user credentials
-     * @param redirectAttributes    Bean with the redirect attributes
-     * @return  Response String in the ApiResponse format
+     * @return IngestionJobResponse of the queued job, which can be followed on /api/v1/jobs/{id}
      */
     @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
     @PostMapping("/load")
-    public ResponseEntity<ApiResponse<String>>  handleSolarGridStateFileUpload(@RequestBody List<SolarGridRequest> solarGrid,
-                                                                               Authentication auth,
-                                                                               RedirectAttributes redirectAttributes)  {
+    public ResponseEntity<ApiResponse<IngestionJobResponse>>  handleSolarGridStateFileUpload(@RequestBody List<SolarGridRequest> solarGrid,
+                                                                                             Authentication auth)  {
         if ( solarGrid.size() == 0 )
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).
-                    body(new ApiResponse<>( Constants.VALIDATION_ERROR,
-                            "JSON Request payload with SolarGrid data is invalid"));
+                    body(new ApiResponse<>( Constants.VALIDATION_ERROR, null));
 
         UserDetails user = (UserDetails)auth.getPrincipal();
 
-        UserResponse userResponse = userService.findByName(user.getUsername());
+        UserResponse userResponse = userService.findByPrincipal(user);
 
-        NetworkCreateResponse response = SolarGridUtils.processIncomingNetwork(networkService, solarGridService, solarGrid, userResponse, null);
+        final IngestionJobResponse job = ingestionJobService.submitList(solarGrid, userResponse);
 
-        return ResponseEntity.status(HttpStatus.RESET_CONTENT).body(new ApiResponse<>( SUCCESS, response.toString()));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/jobs/" + job.getId()))
+                .body(new ApiResponse<>( SUCCESS, job));
     }
 
     /**
@@ -78,32 +107,116 @@ public class SolarSimulatorController {
      * The following are the requests you wish to make.
      * • GET /solar-simulator/output/T: Which returns a result of your total output at T days
      *
+     * The total output is the energy (kWh) produced by all the user SolarGrids during the next T days
+     *
+     * The response has the ETag of the fleet version of the user: a request with a matching If-None-Match header is
+     * answered with 304, without any database access, and the results are cached until the fleet changes.
+     *
+     * With source=database, the total is aggregated inside PostgreSQL instead of over the fleet snapshot of the user.
+     *
      * @param days
+     * @param source        Where the total is computed: memory (default) or database
+     * @param ifNoneMatch   The ETag of the response cached by the client, if any
      * @return List of NetworkResponse
      */
     @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
     @GetMapping("/output/{days}")
-    public ResponseEntity<ApiResponse<SolarSimulatorTotalOutputResponse>> generateOutputDuringDays(@PathVariable Integer days, Authentication auth) {
+    public ResponseEntity<ApiResponse<SolarSimulatorTotalOutputResponse>> generateOutputDuringDays(@PathVariable Integer days,
+                                                                                                 @RequestParam(defaultValue = "memory") String source,
+                                                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                                                 Authentication auth) {
 
         SolarSimulatorTotalOutputResponse solarSimulatorTotalOutputResponse = new SolarSimulatorTotalOutputResponse();
-        if ( days == null || days == 0 )
+        final SimulationSource simulationSource = SimulationSource.parse(source);
+        if ( days == null || days <= 0 || simulationSource == null )
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse<>( Constants.VALIDATION_ERROR, solarSimulatorTotalOutputResponse));
 
-        // first, check if the total of days is more than 60 days, because before that limit none of the solar grids can produce any power output
-        if ( days > SolarGridUtils.DAYS_POWER_PRODUCTION_ON_HOLD ) {
-            UserDetails user = (UserDetails) auth.getPrincipal();
-            UserResponse userResponse = userService.findByName(user.getUsername());
+        UserDetails user = (UserDetails) auth.getPrincipal();
+        UserResponse userResponse = userService.findByPrincipal(user);
 
-            final List<SolarGridResponse> responseList = solarGridService.findByUserId(userResponse.getId());
+        final long userId = userResponse.getId();
+        final long version = simulationResultCache.version(userId);
+        final String etag = simulationResultCache.etag(userId, version);
+        if ( SimulationResultCache.matches(ifNoneMatch, etag) )
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
 
-            for (final SolarGridResponse s : responseList) {
-                // It only sums values from SolarGrids in the case they are working for at least 60 days
-                if ( s.getAge() > SolarGridUtils.DAYS_POWER_PRODUCTION_ON_HOLD )
-                    solarSimulatorTotalOutputResponse.setTotalOutputInKWh(solarSimulatorTotalOutputResponse.getTotalOutputInKWh() + SolarGridUtils.calculatePowerOutput(days));
-            }
+        if ( simulationSource == SimulationSource.DATABASE ) {
+            solarSimulatorTotalOutputResponse.setTotalOutputInKWh(simulationResultCache.get(userId, SimulationResultCache.Endpoint.DATABASE_OUTPUT,
+                    days, version, () -> databaseSimulationService.totalEnergyOverDays(userId, days)));
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                    .body(new ApiResponse<>( SUCCESS, solarSimulatorTotalOutputResponse));
         }
 
-        return ResponseEntity.ok(new ApiResponse<>( SUCCESS, solarSimulatorTotalOutputResponse));
+        final Double totalOutput = simulationResultCache.get(userId, SimulationResultCache.Endpoint.OUTPUT, days, version, () -> {
+            // SolarGrids installed at the same time share the same age, so they are simulated once per distinct age
+            final AgeHistogram histogram = fleetSnapshotStore.get(userId).histogram();
+
+            // the 60 days on hold, the yearly degradation and the breakdown are applied to each SolarGrid based on its age
+            return SolarSimulationEngine.totalEnergyOverDays(histogram, days);
+        });
+        solarSimulatorTotalOutputResponse.setTotalOutputInKWh(totalOutput);
+
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                .body(new ApiResponse<>( SUCCESS, solarSimulatorTotalOutputResponse));
+    }
+
+    /**
+     * Fetches the total output of all Solar Grids of the user over a range of days
+     *
+     * • GET /solar-simulator/output?from=F&to=T&step=S: Which returns the total output at F, F+S, F+2S, ... T days
+     *
+     * The curve is computed incrementally, day by day, and each point is written to the response as soon as it is
+     * produced, so the memory used does not depend on the length of the range.
+     *
+     * With source=database, the points are computed inside PostgreSQL over generate_series(from, to, step), and only
+     * the points are read back.
+     *
+     * @param from      The first day of the range
+     * @param to        The last day of the range (inclusive)
+     * @param step      The amount of days between two points
+     * @param source    Where the curve is computed: memory (default) or database
+     * @return List of points with the day and the totalOutputInKWh
+     */
+    @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
+    @GetMapping(value = "/output", params = {"from", "to"})
+    public ResponseEntity<StreamingResponseBody> generateOutputCurve(@RequestParam int from,
+                                                                     @RequestParam int to,
+                                                                     @RequestParam(defaultValue = "1") int step,
+                                                                     @RequestParam(defaultValue = "memory") String source,
+                                                                     Authentication auth) {
+        final SimulationSource simulationSource = SimulationSource.parse(source);
+        if ( from < 0 || to < from || step <= 0 || (to - from) / step >= MAX_OUTPUT_CURVE_POINTS || simulationSource == null )
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                    .body(ApiResponseStream.of(objectMapper, Constants.VALIDATION_ERROR, generator -> {}));
+
+        UserDetails user = (UserDetails) auth.getPrincipal();
+        UserResponse userResponse = userService.findByPrincipal(user);
+
+        if ( simulationSource == SimulationSource.DATABASE ) {
+            // read before the response is started, so a user without network is answered with 404 as in memory
+            final List<SolarGridDailyEnergy> points = databaseSimulationService.outputCurve(userResponse.getId(), from, to, step);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(ApiResponseStream.of(objectMapper, SUCCESS, generator -> {
+                        for (final SolarGridDailyEnergy point : points) {
+                            generator.writeStartObject();
+                            generator.writeNumberField("day", point.getDay());
+                            generator.writeNumberField("totalOutputInKWh", point.getEnergy());
+                            generator.writeEndObject();
+                        }
+                    }));
+        }
+
+        final ProductionCurve curve = new ProductionCurve(fleetSnapshotStore.get(userResponse.getId()).histogram());
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponseStream.of(objectMapper, SUCCESS, generator -> {
+                    for (long day = from; day <= to; day += step) {
+                        generator.writeStartObject();
+                        generator.writeNumberField("day", day);
+                        generator.writeNumberField("totalOutputInKWh", curve.energyAt((int) day));
+                        generator.writeEndObject();
+                    }
+                }));
     }
 
     /**
@@ -113,30 +226,134 @@ public class SolarSimulatorController {
      * The following are the requests you wish to make.
      * • GET /solar-simulator/network/T: Which returns a result of your network at T days
      *
+     * The response has the ETag of the fleet version of the user: a request with a matching If-None-Match header is
+     * answered with 304, without any database access, and the results are cached until the fleet changes.
+     *
      * @param days
+     * @param ifNoneMatch   The ETag of the response cached by the client, if any
      * @return List of NetworkResponse
      */
     @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
     @GetMapping("/network/{days}")
-    public ResponseEntity<ApiResponse<List<SolarGridResponse>>> generateNetworkDuringDays(@PathVariable Integer days, Authentication auth) {
+    public ResponseEntity<ApiResponse<List<SolarGridResponse>>> generateNetworkDuringDays(@PathVariable Integer days,
+                                                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                                        Authentication auth) {
         List<SolarGridResponse> responseList = new ArrayList<>();
         if ( days == null || days == 0 )
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse<>( Constants.VALIDATION_ERROR, responseList));
 
+        UserDetails user = (UserDetails) auth.getPrincipal();
+        UserResponse userResponse = userService.findByPrincipal(user);
+
+        final long userId = userResponse.getId();
+        final long version = simulationResultCache.version(userId);
+        final String etag = simulationResultCache.etag(userId, version);
+        if ( SimulationResultCache.matches(ifNoneMatch, etag) )
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+
         // first, check if the total of days is more than 60 days, because before that limit none of the solar grids can produce any power output
         if ( days > SolarGridUtils.DAYS_POWER_PRODUCTION_ON_HOLD ) {
-            UserDetails user = (UserDetails) auth.getPrincipal();
-            UserResponse userResponse = userService.findByName(user.getUsername());
-
-           responseList = solarGridService.findByUserId(userResponse.getId());
+            responseList = simulationResultCache.get(userId, SimulationResultCache.Endpoint.NETWORK, days, version, () -> {
+                final List<SolarGridResponse> solarGrids = solarGridService.findByUserId(userId);
 
-            for (final SolarGridResponse s : responseList) {
-                s.setPowerOutput(s.getPowerOutput() + SolarGridUtils.calculatePowerOutput(days));
-            }
+                for (final SolarGridResponse s : solarGrids) {
+                    s.setPowerOutput(s.getPowerOutput() + SolarGridUtils.powerOutputAt(days));
+                }
+                return solarGrids;
+            });
         }
 
-        return ResponseEntity.ok(new ApiResponse<>( SUCCESS, responseList));
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                .body(new ApiResponse<>( SUCCESS, responseList));
     }
 
+    /**
+     * Streams the Solar Grid list of the user at T days, in the same format as generateNetworkDuringDays
+     *
+     * • GET /solar-simulator/network/T?stream=true
+     *
+     * The SolarGrids are read from a database cursor and each one is written to the response as soon as its power
+     * output is calculated, so the memory used does not depend on the size of the fleet. For the same reason the
+     * result is not kept in the SimulationResultCache, but the ETag and If-None-Match are handled the same way.
+     *
+     * @param days
+     * @param ifNoneMatch   The ETag of the response cached by the client, if any
+     * @return List of SolarGridResponse, written as a stream
+     */
+    @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
+    @GetMapping(value = "/network/{days}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamNetworkDuringDays(@PathVariable Integer days,
+                                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                         Authentication auth) {
+        if ( days == null || days == 0 )
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                    .body(ApiResponseStream.of(objectMapper, Constants.VALIDATION_ERROR, generator -> {}));
+
+        UserDetails user = (UserDetails) auth.getPrincipal();
+        UserResponse userResponse = userService.findByPrincipal(user);
+
+        final long userId = userResponse.getId();
+        final String etag = simulationResultCache.etag(userId, simulationResultCache.version(userId));
+        if ( SimulationResultCache.matches(ifNoneMatch, etag) )
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+
+        // none of the solar grids can produce any power output during the first 60 days
+        if ( days <= SolarGridUtils.DAYS_POWER_PRODUCTION_ON_HOLD )
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).contentType(MediaType.APPLICATION_JSON)
+                    .body(ApiResponseStream.of(objectMapper, SUCCESS, generator -> {}));
+
+        solarGridService.checkNetworkExists(userId);
+        final double powerOutputAtDays = SolarGridUtils.powerOutputAt(days);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponseStream.of(objectMapper, SUCCESS, generator ->
+                        solarGridService.writeByUserId(userId, solarGrid -> {
+                            solarGrid.setPowerOutput(solarGrid.getPowerOutput() + powerOutputAtDays);
+                            generator.writeObject(solarGrid);
+                        })));
+    }
+
+    /**
+     * Fetches the energy produced so far by all the networks of the user
+     *
+     * • GET /solar-simulator/produced: Which returns the total output produced until the last day of the production ledger
+     *
+     * The total is read from the latest ledger row of each network, so it does not depend on the size of the fleet.
+     * The current day is only included once it is over and materialized.
+     *
+     * @return ProducedOutputResponse with the last day included and the totalOutputInKWh
+     */
+    @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
+    @GetMapping("/produced")
+    public ResponseEntity<ApiResponse<ProducedOutputResponse>> getProducedOutput(Authentication auth) {
+        UserDetails user = (UserDetails) auth.getPrincipal();
+        UserResponse userResponse = userService.findByPrincipal(user);
 
+        return ResponseEntity.ok(new ApiResponse<>( SUCCESS, productionLedgerService.producedSoFar(userResponse.getId())));
+    }
+
+    /**
+     * Fetches the energy produced by all the networks of the user on each day of a range
+     *
+     * • GET /solar-simulator/produced?from=yyyy-MM-dd&to=yyyy-MM-dd: Which returns the output produced on each day
+     *
+     * Only the days still kept as daily rows of the production ledger are returned, the older ones being compacted
+     * into monthly totals.
+     *
+     * @param from      The first day of the range
+     * @param to        The last day of the range (inclusive)
+     * @return List of DailyProductionResponse, in date order
+     */
+    @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_USER)")
+    @GetMapping(value = "/produced", params = {"from", "to"})
+    public ResponseEntity<ApiResponse<List<DailyProductionResponse>>> getDailyProduction(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                                        Authentication auth) {
+        if ( to.isBefore(from) )
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse<>( Constants.VALIDATION_ERROR, new ArrayList<>()));
+
+        UserDetails user = (UserDetails) auth.getPrincipal();
+        UserResponse userResponse = userService.findByPrincipal(user);
+
+        return ResponseEntity.ok(new ApiResponse<>( SUCCESS, productionLedgerService.dailyProduction(userResponse.getId(), from, to)));
+    }
 }
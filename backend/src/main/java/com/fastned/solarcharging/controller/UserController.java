@@ -107,4 +107,18 @@ public class UserController {
                 .status(HttpStatus.NO_CONTENT)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Revokes all the tokens issued to the user until now, forcing the user to log in again
+     *
+     * @param id
+     */
+    @PreAuthorize("hasRole(T(com.fastned.solarcharging.model.RoleType).ROLE_ADMIN)")
+    @PostMapping("/{id}/revoke-tokens")
+    public ResponseEntity<ApiResponse<Void>> revokeTokens(@PathVariable long id) {
+        userService.revokeTokens(id);
+        return ResponseEntity
+                .status(HttpStatus.NO_CONTENT)
+                .build();
+    }
+}
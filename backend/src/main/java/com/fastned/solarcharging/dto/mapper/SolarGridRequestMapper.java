@@ -12,6 +12,7 @@ import org.mapstruct.Mapping;
 public interface SolarGridRequestMapper {
 
     @Mapping(target = "name", expression = "java(org.apache.commons.text.WordUtils.capitalizeFully(dto.getName()))")
+    @Mapping(target = "createdAt", ignore = true)
     SolarGrid toEntity(SolarGridRequest dto);
 
     SolarGridRequest toDto(SolarGrid entity);
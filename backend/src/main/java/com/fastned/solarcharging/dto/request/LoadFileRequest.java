@@ -11,7 +11,18 @@ import lombok.Data;
 @Data
 public class LoadFileRequest {
 
+    /**
+     * Loads the file with the PostgreSQL bulk loader, used for very large networks
+     */
+    public static final String BULK_MODE = "bulk";
+
     @NotBlank
     private Integer timeElapsedDays;
 
+    private String mode;
+
+    public boolean isBulkMode() {
+        return BULK_MODE.equalsIgnoreCase(mode);
+    }
+
 }
\ No newline at end of file
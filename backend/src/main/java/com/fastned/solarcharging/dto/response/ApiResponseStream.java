@@ -0,0 +1,48 @@
+package com.fastned.solarcharging.dto.response;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+/**
+ * Writes a response in the ApiResponse format (message and data) directly to the HTTP response, so the elements
+ * of the data array are serialized as soon as they are produced, instead of being collected in memory first
+ */
+public final class ApiResponseStream {
+
+    private ApiResponseStream() {
+    }
+
+    /**
+     * Writes the elements of the data array, using the given JsonGenerator
+     */
+    @FunctionalInterface
+    public interface DataWriter {
+
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    /**
+     * Creates a response body which writes {"message": message, "data": [elements]}
+     *
+     * @param objectMapper  The ObjectMapper used to create the JsonGenerator
+     * @param message       The response message
+     * @param dataWriter    Writes the elements of the data array
+     * @return StreamingResponseBody
+     */
+    public static StreamingResponseBody of(ObjectMapper objectMapper, String message, DataWriter dataWriter) {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeStringField("message", message);
+                generator.writeArrayFieldStart("data");
+                dataWriter.write(generator);
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.fastned.solarcharging.dto.response;
+
+import com.fastned.solarcharging.common.KeysetCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Data Transfer Object for a slice of a keyset pagination, with the cursor of the next slice
+ *
+ * @param <T>
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+
+    /**
+     * Cursor of the next slice, null for the last one
+     */
+    private final String nextCursor;
+
+    /**
+     * Creates the CursorPage of the given slice, ordered by id
+     *
+     * @param slice
+     * @param idOf  Returns the id of an element
+     * @return CursorPage
+     */
+    public static <T> CursorPage<T> of(Slice<T> slice, ToLongFunction<T> idOf) {
+        final List<T> content = slice.getContent();
+        final String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? KeysetCursor.encode(idOf.applyAsLong(content.get(content.size() - 1)))
+                : null;
+        return new CursorPage<>(content, slice.getSize(), slice.hasNext(), nextCursor);
+    }
+}
@@ -0,0 +1,21 @@
+package com.fastned.solarcharging.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object for SolarSimulator /api/v1/solar-simulator/produced?from=F&to=T response
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyProductionResponse {
+
+    private LocalDate date;
+
+    private Double outputInKWh;
+
+}
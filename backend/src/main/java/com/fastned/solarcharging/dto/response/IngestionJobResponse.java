@@ -0,0 +1,26 @@
+package com.fastned.solarcharging.dto.response;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for the progress of an ingestion job
+ */
+@Data
+public class IngestionJobResponse {
+
+    private String id;
+    private String status;
+    private Long networkId;
+    private long rowsParsed;
+    private long rowsPersisted;
+    private long rowsRejected;
+    private double rowsPerSecond;
+    private long elapsedMs;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String result;
+    private String error;
+}
@@ -14,14 +14,34 @@ public class NetworkCreateResponse {
     private Long id;
     private String name;
 
+    /**
+     * Maximum amount of SolarGrids listed in the response, so big networks do not need to be kept in memory
+     */
+    public static final int MAX_LISTED_SOLAR_GRIDS = 1000;
+
     private Double powerOutput;
 
+    private long totalSolarGrids;
+
+    private long rejectedSolarGrids;
+
     private List<SolarGridResponse> responseList = new ArrayList<>();
 
     public NetworkCreateResponse() {
         this.powerOutput = 0.0;
     }
 
+    /**
+     * Counts a created SolarGrid, listing it in case the list has not reached MAX_LISTED_SOLAR_GRIDS
+     *
+     * @param solarGridResponse
+     */
+    public void addSolarGrid(SolarGridResponse solarGridResponse) {
+        totalSolarGrids++;
+        if ( responseList.size() < MAX_LISTED_SOLAR_GRIDS )
+            responseList.add(solarGridResponse);
+    }
+
     /**
      *  @return Produced: [Output] kWh
      * Network:
@@ -37,6 +57,10 @@ public class NetworkCreateResponse {
         for ( SolarGridResponse st : responseList ) {
             ret += "%s in use for %d days\n".formatted(st.getName(), st.getAge());
         }
+        if ( totalSolarGrids > responseList.size() )
+            ret += "... and %d more SolarGrids\n".formatted(totalSolarGrids - responseList.size());
+        if ( rejectedSolarGrids > 0 )
+            ret += "Rejected: %d SolarGrids with a duplicated or missing name or age\n".formatted(rejectedSolarGrids);
 
         return ret;
     }
@@ -0,0 +1,24 @@
+package com.fastned.solarcharging.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object for SolarSimulator /api/v1/solar-simulator/produced response
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProducedOutputResponse {
+
+    /**
+     * Last day of the production ledger, null in case nothing was produced yet
+     */
+    private LocalDate until;
+
+    private Double totalOutputInKWh = 0.0;
+
+}
@@ -22,6 +22,17 @@ public class SolarGridResponse {
         this.age = age;
     }
 
+    /**
+     * Used by the projection queries of SolarGridRepository, which read the responses without loading entities
+     */
+    public SolarGridResponse( Long id, String name, Integer age, Double powerOutput, Date createdAt ) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.powerOutput = powerOutput;
+        this.createdAt = createdAt;
+    }
+
     private Integer age;
 
     private Double powerOutput;
@@ -83,6 +83,40 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return buildErrorResponse(ex, HttpStatus.CONFLICT, request);
     }
 
+    /**
+     * Handles InvalidCursorException
+     *
+     * @param ex
+     * @param request
+     * @return ResponseEntity<Object> with detailed information related to the error
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<Object> handleInvalidCursorException(InvalidCursorException ex, WebRequest request) {
+        log.warn(INVALID_CURSOR, ex);
+        return buildErrorResponse(ex, HttpStatus.BAD_REQUEST, request);
+    }
+
+    /**
+     * Handles ServiceBusyException
+     *
+     * @param ex
+     * @param request
+     * @return ResponseEntity<Object> with detailed information related to the error
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<Object> handleServiceBusyException(ServiceBusyException ex, WebRequest request) {
+        log.warn(SERVICE_BUSY, ex);
+        final ResponseEntity<Object> response = buildErrorResponse(ex, HttpStatus.SERVICE_UNAVAILABLE, request);
+        if ( ex.getRetryAfterSeconds() <= 0 )
+            return response;
+
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
     /**
      * Handles all the uncaught exceptions that cannot be caught by the previous methods
      *
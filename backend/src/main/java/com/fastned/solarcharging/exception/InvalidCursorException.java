@@ -0,0 +1,19 @@
+package com.fastned.solarcharging.exception;
+
+/**
+ * Exception thrown when a pagination cursor cannot be decoded
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException() {
+        super();
+    }
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,34 @@
+package com.fastned.solarcharging.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception used when the request cannot be accepted because the service is at its capacity
+ *
+ * When retryAfterSeconds is positive, it is sent to the client in the Retry-After header.
+ */
+@Getter
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException() {
+        super();
+        this.retryAfterSeconds = 0;
+    }
+
+    public ServiceBusyException(String message) {
+        super(message);
+        this.retryAfterSeconds = 0;
+    }
+
+    public ServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = 0;
+    }
+
+    public ServiceBusyException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,40 @@
+package com.fastned.solarcharging.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Revocation of a single token (by its jti claim) or of all the tokens of a user issued until revokedAt
+ *
+ * The revocation is kept until expiresAt, when all the tokens it covers are expired anyway.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@EqualsAndHashCode(of = {"tokenKey"})
+public class RevokedToken {
+
+    @Id
+    @Column(length = 64)
+    private String tokenKey;
+
+    @Column(nullable = false)
+    private Date revokedAt;
+
+    @Column(nullable = false)
+    private Date expiresAt;
+
+    public RevokedToken(String tokenKey, Date revokedAt, Date expiresAt) {
+        this.tokenKey = tokenKey;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
 
 import java.util.Date;
 import java.util.HashSet;
@@ -15,6 +16,11 @@ import java.util.Set;
 @EqualsAndHashCode(of = {"name"})
 public class SolarGrid {
 
+    /**
+     * Amount of ids taken from sequence_solar_grid at once, it must match the increment of the sequence
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -23,7 +29,7 @@ public class SolarGrid {
     @SequenceGenerator(
             name = "sequence-solar-grid",
             sequenceName = "sequence_solar_grid",
-            allocationSize = 5
+            allocationSize = ID_ALLOCATION_SIZE
     )
     private Long id;
 
@@ -36,7 +42,11 @@ public class SolarGrid {
     @Column(nullable = false)
     private Double powerOutput;
 
-    @Column(nullable = false)
+    /**
+     * Set once by Hibernate when the SolarGrid is inserted, the production ledger counts its days from then
+     */
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
     private Date createdAt;
 
 
@@ -1,15 +1,26 @@
 package com.fastned.solarcharging.repository;
 
 import com.fastned.solarcharging.model.Network;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 @Repository
 public interface NetworkRepository extends JpaRepository<Network, Long> {
 
     boolean existsById(Long id);
 
     List<Network> findAllByUserId(long idUser);
+
+    Slice<Network> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    boolean existsByUserId(long idUser);
 }
@@ -0,0 +1,11 @@
+package com.fastned.solarcharging.repository;
+
+/**
+ * Projection used for fetching the amount of SolarGrids grouped by age
+ */
+public interface SolarGridAgeCount {
+
+    Integer getAge();
+
+    Long getTotal();
+}
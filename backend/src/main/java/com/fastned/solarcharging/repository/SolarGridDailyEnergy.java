@@ -0,0 +1,11 @@
+package com.fastned.solarcharging.repository;
+
+/**
+ * Projection used for fetching the total energy produced by a fleet until each day of a series
+ */
+public interface SolarGridDailyEnergy {
+
+    Integer getDay();
+
+    Double getEnergy();
+}
@@ -1,19 +1,67 @@
 package com.fastned.solarcharging.repository;
 
+import com.fastned.solarcharging.dto.response.SolarGridResponse;
 import com.fastned.solarcharging.model.Network;
 import com.fastned.solarcharging.model.SolarGrid;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface SolarGridRepository extends JpaRepository<SolarGrid, Long> {
 
     boolean existsByNameIgnoreCase(String name);
 
+    @Query("select lower(s.name) from SolarGrid s where lower(s.name) in :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
     List<SolarGrid> findAllByNetworkId(long networkId);
 
+    String RESPONSE_BY_USER_ID = "select new com.fastned.solarcharging.dto.response.SolarGridResponse(s.id, s.name, s.age, s.powerOutput, s.createdAt) " +
+            "from SolarGrid s where s.network.user.id = :userId";
+
+    @Query(RESPONSE_BY_USER_ID + " order by s.id")
+    List<SolarGridResponse> findResponsesByUserId(@Param("userId") long userId);
+
+    @Query(value = RESPONSE_BY_USER_ID,
+            countQuery = "select count(s) from SolarGrid s where s.network.user.id = :userId")
+    Page<SolarGridResponse> findResponsesByUserId(@Param("userId") long userId, Pageable pageable);
+
+    @Query("select new com.fastned.solarcharging.dto.response.SolarGridResponse(s.id, s.name, s.age, s.powerOutput, s.createdAt) " +
+            "from SolarGrid s where s.id > :afterId order by s.id")
+    Slice<SolarGridResponse> findResponsesAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE_BY_USER_ID + " order by s.id")
+    Stream<SolarGridResponse> streamResponsesByUserId(@Param("userId") long userId);
+
+    @Query("select s.age as age, count(s) as total from SolarGrid s where s.network.user.id = :userId group by s.age order by s.age")
+    List<SolarGridAgeCount> countByAgeForUserId(@Param("userId") long userId);
+
+    String FLEET_AGES_BY_USER_ID = "WITH fleet AS (SELECT s.age, count(*) AS grids FROM solar_grid s " +
+            "JOIN network n ON n.id = s.network_id WHERE n.user_id = :userId GROUP BY s.age) ";
+
+    @Query(value = FLEET_AGES_BY_USER_ID + "SELECT coalesce(sum(f.grids * (solar_grid_cumulative_energy(CAST(f.age AS BIGINT) + :days) " +
+            "- solar_grid_cumulative_energy(f.age))), 0) FROM fleet f", nativeQuery = true)
+    Double sumEnergyOverDaysByUserId(@Param("userId") long userId, @Param("days") int days);
+
+    @Query(value = FLEET_AGES_BY_USER_ID + "SELECT p.day AS day, coalesce(sum(f.grids * (solar_grid_cumulative_energy(CAST(f.age AS BIGINT) + p.day) " +
+            "- solar_grid_cumulative_energy(f.age))), 0) AS energy " +
+            "FROM generate_series(:from, :to, :step) AS p(day) LEFT JOIN fleet f ON true GROUP BY p.day ORDER BY p.day",
+            nativeQuery = true)
+    List<SolarGridDailyEnergy> sumEnergyCurveByUserId(@Param("userId") long userId, @Param("from") int from,
+                                                      @Param("to") int to, @Param("step") int step);
+
 }
@@ -1,5 +1,7 @@
 package com.fastned.solarcharging.security;
 
+import com.fastned.solarcharging.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,12 +12,12 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
 import static com.fastned.solarcharging.common.Constants.CANNOT_SET_AUTH;
+import static com.fastned.solarcharging.common.Constants.JWT_REVOKED;
 
 /**
  * Makes a single execution for each request to our API. It provides a doFilterInternal() method
@@ -29,17 +31,28 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                final String username = jwtUtils.getUsernameFromJwtToken(jwt);
+            // the token is verified a single time, and its claims are used for building the principal
+            final Claims claims = jwt == null ? null : jwtUtils.getVerifiedClaims(jwt);
+            // revoked tokens are checked after the verified-token cache, which keeps them until their expiration
+            if (claims != null && tokenRevocationService.isRevoked(claims)) {
+                log.warn(JWT_REVOKED, claims.getSubject());
+            } else if (claims != null) {
+                UserDetails userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+
+                // tokens issued before the id and roles claims are resolved by their username
+                if ( userDetails == null )
+                    userDetails = userDetailsCache.get(claims.getSubject());
 
-                final UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 final UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -56,11 +69,6 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     }
 
     private String parseJwt(HttpServletRequest request) {
-        String headerAuth = request.getHeader("Authorization");
-
-        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-            return headerAuth.substring(7, headerAuth.length());
-        }
-        return null;
+        return JwtUtils.parseBearerToken(request.getHeader("Authorization"));
     }
 }
@@ -1,46 +1,185 @@
 package com.fastned.solarcharging.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static com.fastned.solarcharging.common.Constants.*;
 
 /**
  * Utility class for JWT related tasks
+ *
+ * The signing key and the parser are built once. Verified tokens are kept in a bounded cache until they expire,
+ * keyed by the SHA-256 of the token, so the following requests with the same token skip the parsing and the
+ * HMAC verification.
  */
 @Slf4j(topic = "JwtUtils")
 @Component
+@RequiredArgsConstructor
 public class JwtUtils {
 
+    public static final String CLAIM_ID = "id";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String VERIFIED_TOKENS_CACHE_NAME = "verifiedTokens";
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${app.security.jwtSecret}")
     private String jwtSecret;
 
     @Value("${app.security.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    @Value("${app.security.verifiedTokenCache.maxSize:10000}")
+    private long verifiedTokenCacheMaxSize;
+
+    private Key signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+        parser = Jwts.parser().setSigningKey(signingKey);
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        final long remainingMs = claims.getExpiration() == null ? 0
+                                : claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, VERIFIED_TOKENS_CACHE_NAME);
+    }
+
+    /**
+     * Extracts the token of a "Bearer" Authorization header
+     *
+     * @param headerAuth    The value of the Authorization header
+     * @return the token, or null in case the header is missing or of another scheme
+     */
+    public static String parseBearerToken(String headerAuth) {
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+        return null;
+    }
+
     public String generateJwtToken(Authentication authentication) {
         final UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+        final List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject((userPrincipal.getUsername()))
+                .claim(CLAIM_ID, userPrincipal.getId())
+                .claim(CLAIM_ROLES, roles)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(SignatureAlgorithm.HS512, signingKey)
                 .compact();
     }
 
+    /**
+     * Verifies the given token, once per token while it is cached
+     *
+     * @param token
+     * @return Claims of the token, or null in case it is not valid
+     */
+    public Claims getVerifiedClaims(String token) {
+        final String hash = hash(token);
+        final Claims cached = verifiedTokens.getIfPresent(hash);
+        if ( cached != null )
+            return cached;
+
+        final Claims claims = verify(token);
+        if ( claims != null && claims.getExpiration() != null )
+            verifiedTokens.put(hash, claims);
+        return claims;
+    }
+
     public String getUsernameFromJwtToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+        final Claims claims = getVerifiedClaims(token);
+        return claims == null ? null : claims.getSubject();
+    }
+
+    /**
+     * Builds the UserDetails carried by the id and roles claims of the token, so the user does not need to be
+     * loaded. The password is not part of the token.
+     *
+     * @param token
+     * @return UserDetailsImpl, or null for tokens issued without the id and roles claims
+     */
+    public UserDetailsImpl getUserDetailsFromJwtToken(String token) {
+        final Claims claims = getVerifiedClaims(token);
+        return claims == null ? null : getUserDetailsFromClaims(claims);
+    }
+
+    /**
+     * Builds the UserDetails carried by the id and roles claims
+     *
+     * @param claims    Claims of a verified token
+     * @return UserDetailsImpl, or null for tokens issued without the id and roles claims
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        final Object id = claims.get(CLAIM_ID);
+        final Object roles = claims.get(CLAIM_ROLES);
+        if ( !(id instanceof Number) || !(roles instanceof Collection<?> roleNames) )
+            return null;
+
+        final List<SimpleGrantedAuthority> authorities = roleNames.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new UserDetailsImpl(((Number) id).longValue(), claims.getSubject(), null, authorities);
     }
 
     public boolean validateJwtToken(String authToken) {
+        return getVerifiedClaims(authToken) != null;
+    }
+
+    private Claims verify(String authToken) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            return parser.parseClaimsJws(authToken).getBody();
         } catch (SignatureException e) {
             log.error(INVALID_JWT_SIGN, e.getMessage());
         } catch (MalformedJwtException e) {
@@ -52,6 +191,15 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             log.error(JWT_EMPTY, e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    private static String hash(String token) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,95 @@
+package com.fastned.solarcharging.security;
+
+import com.fastned.solarcharging.exception.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.fastned.solarcharging.common.Constants.AUTHENTICATION_BUSY;
+
+/**
+ * Bounded pool of workers for the operations which hash passwords (login and signup), so a burst of logins does
+ * not hold the request threads used by the other endpoints
+ *
+ * When the workers and the queue are full, new operations are refused with ServiceBusyException, which is sent as
+ * 503 with a Retry-After header. The pool is published as the "executor.*" metrics (queued, active, completed,
+ * idle and execution times), with the tag name=passwordHashing.
+ */
+@Slf4j(topic = "PasswordHashingExecutor")
+@Component
+@RequiredArgsConstructor
+public class PasswordHashingExecutor {
+
+    public static final String EXECUTOR_NAME = "passwordHashing";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Amount of workers, the available processors by default since BCrypt is CPU bound
+     */
+    @Value("${app.security.passwordHashing.workers:0}")
+    private int workers;
+
+    @Value("${app.security.passwordHashing.queueCapacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.security.passwordHashing.retryAfterSeconds:1}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private ExecutorService monitoredExecutor;
+
+    @PostConstruct
+    void init() {
+        final int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "password-hashing-" + threads.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        monitoredExecutor = ExecutorServiceMetrics.monitor(meterRegistry, executor, EXECUTOR_NAME);
+        log.info("Password hashing pool started with {} workers and a queue of {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submits an operation which hashes passwords
+     *
+     * @param operation
+     * @return CompletableFuture completed with the result of the operation, or with the exception it threw
+     * @throws ServiceBusyException in case the workers and the queue are full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return operation.get();
+                } finally {
+                    // the authentication set by the login must not leak to the next operation of the worker
+                    SecurityContextHolder.clearContext();
+                }
+            }, monitoredExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException(AUTHENTICATION_BUSY, retryAfterSeconds, e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.fastned.solarcharging.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fastned.solarcharging.service.cache.CacheInvalidationBus;
+import com.fastned.solarcharging.service.cache.CacheInvalidationListener;
+import com.fastned.solarcharging.service.cache.InvalidationTopic;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of the UserDetails loaded by the AuthTokenFilter, so an authenticated request does not need to
+ * query the user and its roles every time
+ *
+ * Entries expire after ttlSeconds, and are evicted by every change of the user, on this and on the other nodes. Its hit and miss statistics are
+ * published as the "cache.*" metrics, with the tag cache=userDetails.
+ */
+@Slf4j(topic = "UserDetailsCache")
+@Component
+@RequiredArgsConstructor
+public class UserDetailsCache implements CacheInvalidationListener {
+
+    public static final String CACHE_NAME = "userDetails";
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${app.security.userDetailsCache.maxSize:10000}")
+    private long maxSize;
+
+    @Value("${app.security.userDetailsCache.ttlSeconds:300}")
+    private long ttlSeconds;
+
+    private Cache<String, UserDetails> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Fetches the UserDetails of the given username, loading it in case it is not cached
+     *
+     * @param username
+     * @return UserDetails
+     * @throws UsernameNotFoundException in case the user does not exist, which is not cached
+     */
+    public UserDetails get(String username) {
+        return cache.get(username, userDetailsService::loadUserByUsername);
+    }
+
+    /**
+     * Evicts the UserDetails of the given username, so the next request loads the changes of the user
+     *
+     * @param username
+     */
+    public void evict(String username) {
+        if ( username == null )
+            return;
+
+        cache.invalidate(username);
+        cacheInvalidationBus.publish(InvalidationTopic.USER_DETAILS, username);
+        log.debug("Evicted the UserDetails of {}", username);
+    }
+
+    @Override
+    public InvalidationTopic topic() {
+        return InvalidationTopic.USER_DETAILS;
+    }
+
+    @Override
+    public void invalidateLocally(String username) {
+        cache.invalidate(username);
+    }
+
+    @Override
+    public void invalidateAllLocally() {
+        cache.invalidateAll();
+    }
+}
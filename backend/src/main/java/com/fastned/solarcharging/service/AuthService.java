@@ -12,6 +12,8 @@ import com.fastned.solarcharging.model.Role;
 import com.fastned.solarcharging.model.RoleType;
 import com.fastned.solarcharging.model.User;
 import com.fastned.solarcharging.security.JwtUtils;
+import com.fastned.solarcharging.security.UserDetailsCache;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,6 +29,7 @@ import java.util.List;
 
 import static com.fastned.solarcharging.common.Constants.ALREADY_EXISTS_USER;
 import static com.fastned.solarcharging.common.Constants.CREATED_USER;
+import static com.fastned.solarcharging.common.Constants.LOGGED_OUT;
 
 /**
  * Service used for Authentication related operations
@@ -41,6 +44,8 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final PasswordEncoder encoder;
     private final JwtUtils jwtUtils;
+    private final UserDetailsCache userDetailsCache;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * Authenticates users by their credentials
@@ -77,7 +82,23 @@ public class AuthService {
         // add default role to the user
         user.setRoles(new HashSet<>(Arrays.asList(new Role(1L, RoleType.ROLE_USER))));
         userRepository.save(user);
+        userDetailsCache.evict(user.getUsername());
         log.info(CREATED_USER);
         return CommandResponse.builder().id(user.getId()).build();
     }
+
+    /**
+     * Logs out by revoking the given token until its expiration. Invalid or expired tokens are ignored, since they
+     * cannot be used anymore.
+     *
+     * @param token
+     */
+    public void logout(String token) {
+        final Claims claims = token == null ? null : jwtUtils.getVerifiedClaims(token);
+        if ( claims == null )
+            return;
+
+        tokenRevocationService.revokeToken(claims);
+        log.info(LOGGED_OUT);
+    }
 }
@@ -1,7 +1,9 @@
 package com.fastned.solarcharging.service;
 
 import com.fastned.solarcharging.common.Constants;
+import com.fastned.solarcharging.common.KeysetCursor;
 import com.fastned.solarcharging.dto.request.NetworkRequest;
+import com.fastned.solarcharging.dto.response.CursorPage;
 import com.fastned.solarcharging.dto.response.NetworkResponse;
 import com.fastned.solarcharging.exception.NoSuchElementFoundException;
 import com.fastned.solarcharging.model.Network;
@@ -9,10 +11,14 @@ import com.fastned.solarcharging.repository.NetworkRepository;
 import com.fastned.solarcharging.dto.mapper.NetworkRequestMapper;
 import com.fastned.solarcharging.dto.mapper.NetworkResponseMapper;
 import com.fastned.solarcharging.dto.response.CommandResponse;
+import com.fastned.solarcharging.service.cache.SecondLevelCacheInvalidator;
+import com.fastned.solarcharging.service.simulation.FleetSnapshotStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,6 +45,8 @@ public class NetworkService {
     private final UserService userService;
     private final NetworkRequestMapper networkRequestMapper;
     private final NetworkResponseMapper networkResponseMapper;
+    private final FleetSnapshotStore fleetSnapshotStore;
+    private final SecondLevelCacheInvalidator secondLevelCacheInvalidator;
 
     /**
      * Fetches a single network by the given id
@@ -68,6 +76,26 @@ public class NetworkService {
         return networks;
     }
 
+    /**
+     * Fetches a slice of all networks ordered by id, following the given cursor. Unlike findAll, the slice is
+     * fetched by seeking the id index, without counting the networks.
+     *
+     * @param cursor    The cursor of the previous slice, empty for the first one
+     * @param size      The maximum amount of networks of the slice
+     * @return CursorPage of NetworkResponse
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NetworkResponse> findAll(String cursor, int size) {
+        final long afterId = KeysetCursor.decode(cursor);
+        final Slice<NetworkResponse> networks = networkRepository.findByIdGreaterThanOrderByIdAsc(afterId,
+                        PageRequest.of(0, KeysetCursor.size(size)))
+                .map(networkResponseMapper::toDto);
+
+        if (networks.isEmpty() && afterId == 0)
+            throw new NoSuchElementFoundException(Constants.NOT_FOUND_RECORD);
+        return CursorPage.of(networks, NetworkResponse::getId);
+    }
+
     /**
      * Fetches all networks based on the given userId
      *
@@ -93,6 +121,9 @@ public class NetworkService {
         final Network network = networkRequestMapper.toEntity(request);
         network.setUser(userService.getById(request.getIdUser()));
         networkRepository.save(network);
+        secondLevelCacheInvalidator.evict(Network.class, network.getId());
+        // a first network turns the simulations of the user from not found into empty results
+        fleetSnapshotStore.invalidate(request.getIdUser());
         log.info(Constants.CREATED_NETWORK);
         return CommandResponse.builder().id(network.getId()).build();
     }
@@ -105,12 +136,18 @@ public class NetworkService {
      * @return id of the updated network
      */
     public CommandResponse update(NetworkRequest request) {
-        if (!networkRepository.existsById(request.getId()))
-            throw new NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK);
+        final Network current = networkRepository.findById(request.getId())
+                .orElseThrow(() -> new NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK));
+        final long previousUserId = current.getUser().getId();
 
         final Network network = networkRequestMapper.toEntity(request);
         network.setUser(userService.getById(request.getIdUser()));
         networkRepository.save(network);
+        secondLevelCacheInvalidator.evict(Network.class, network.getId());
+
+        // the SolarGrids of the network may have moved to another user
+        fleetSnapshotStore.invalidate(previousUserId);
+        fleetSnapshotStore.invalidate(request.getIdUser());
         log.info(Constants.UPDATED_NETWORK);
         return CommandResponse.builder().id(network.getId()).build();
     }
@@ -124,6 +161,8 @@ public class NetworkService {
         final Network network = networkRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK));
         networkRepository.delete(network);
+        secondLevelCacheInvalidator.evict(Network.class, id);
+        fleetSnapshotStore.invalidate(network.getUser().getId());
         log.info(Constants.DELETED_NETWORK);
     }
 }
@@ -0,0 +1,179 @@
+package com.fastned.solarcharging.service;
+
+import com.fastned.solarcharging.dto.request.SolarGridRequest;
+import com.fastned.solarcharging.dto.response.NetworkCreateResponse;
+import com.fastned.solarcharging.dto.response.UserResponse;
+import com.fastned.solarcharging.model.SolarGrid;
+import com.fastned.solarcharging.service.cache.SecondLevelCacheInvalidator;
+import com.fastned.solarcharging.service.simulation.FleetSnapshotStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.text.WordUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+
+import static com.fastned.solarcharging.service.util.SolarGridUtils.powerOutputAt;
+
+/**
+ * Service used for loading very large networks directly with PostgreSQL
+ *
+ * The SolarGrids are streamed with COPY into the unlogged solar_grid_staging table, and then merged into network and
+ * solar_grid with a single statement, which also skips the names already in use (case-insensitive). The power output
+ * is calculated while the rows are copied, so the SolarGrids are never loaded as entities.
+ */
+@Slf4j(topic = "SolarGridBulkLoader")
+@Service
+@RequiredArgsConstructor
+public class SolarGridBulkLoader {
+
+    private static final int MAX_NAME_LENGTH = 500;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String NEXT_LOAD_ID = "SELECT nextval('sequence_solar_grid_load')";
+
+    private static final String COPY_TO_STAGING =
+            "COPY solar_grid_staging (load_id, seq, name, age, power_output) FROM STDIN WITH (FORMAT csv)";
+
+    /**
+     * Creates the network and inserts the staged SolarGrids whose names are not in use, keeping the first one of
+     * the names repeated in the file. The names taken by concurrent inserts are skipped by the unique index on
+     * lower(name), instead of failing the load. The ids are taken in blocks of SolarGrid.ID_ALLOCATION_SIZE from
+     * sequence_solar_grid, the same way the pooled-lo optimizer of Hibernate does, so both can be used together.
+     */
+    private static final String MERGE_STAGING = """
+            WITH new_network AS (
+                INSERT INTO network (id, name, user_id)
+                VALUES (nextval('sequence_network'), ?, ?)
+                RETURNING id
+            ), candidates AS (
+                SELECT DISTINCT ON (lower(s.name)) s.seq, s.name, s.age, s.power_output
+                FROM solar_grid_staging s
+                WHERE s.load_id = ?
+                  AND NOT EXISTS (SELECT 1 FROM solar_grid g WHERE lower(g.name) = lower(s.name))
+                ORDER BY lower(s.name), s.seq
+            ), numbered AS (
+                SELECT c.*, row_number() OVER (ORDER BY c.seq) - 1 AS position
+                FROM candidates c
+            ), id_blocks AS (
+                SELECT b - 1 AS block, nextval('sequence_solar_grid') AS first_id
+                FROM generate_series(1, (SELECT (count(*) + ? - 1) / ? FROM numbered)) b
+            ), inserted AS (
+                INSERT INTO solar_grid (id, name, age, power_output, created_at, network_id)
+                SELECT i.first_id + n.position % ?, n.name, n.age, n.power_output, current_timestamp, nn.id
+                FROM numbered n
+                JOIN id_blocks i ON i.block = n.position / ?
+                CROSS JOIN new_network nn
+                ON CONFLICT (lower(name)) DO NOTHING
+                RETURNING power_output
+            )
+            SELECT (SELECT id FROM new_network) AS network_id, count(*) AS inserted,
+                   coalesce(sum(power_output), 0) AS power_output
+            FROM inserted
+            """;
+
+    private static final String CLEAR_STAGING = "DELETE FROM solar_grid_staging WHERE load_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FleetSnapshotStore fleetSnapshotStore;
+    private final SolarGridNameIndex solarGridNameIndex;
+    private final SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+
+    /**
+     * Creates a new network for the given user with the given SolarGrids
+     *
+     * @param solarGrids
+     * @param userResponse
+     * @return NetworkCreateResponse with the amount of created and rejected SolarGrids
+     */
+    @Transactional
+    public NetworkCreateResponse load(Iterator<SolarGridRequest> solarGrids, UserResponse userResponse) {
+        final long loadId = jdbcTemplate.queryForObject(NEXT_LOAD_ID, Long.class);
+        final long[] counts = jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> copyToStaging(connection, loadId, solarGrids));
+        final long staged = counts[0];
+        final long invalid = counts[1];
+
+        final int block = SolarGrid.ID_ALLOCATION_SIZE;
+        final NetworkCreateResponse response = jdbcTemplate.queryForObject(MERGE_STAGING, (rs, rowNum) -> {
+            final NetworkCreateResponse merged = new NetworkCreateResponse();
+            merged.setId(rs.getLong("network_id"));
+            merged.setTotalSolarGrids(rs.getLong("inserted"));
+            merged.setPowerOutput(rs.getDouble("power_output"));
+            return merged;
+        }, userResponse.getUsername(), userResponse.getId(), loadId, block, block, block, block);
+
+        response.setName(userResponse.getUsername());
+        response.setRejectedSolarGrids(invalid + staged - response.getTotalSolarGrids());
+
+        jdbcTemplate.update(CLEAR_STAGING, loadId);
+        fleetSnapshotStore.invalidate(userResponse.getId());
+        solarGridNameIndex.addNetwork(response.getId());
+        // the network is inserted behind Hibernate, so its cached queries, like existsByUserId, are stale
+        secondLevelCacheInvalidator.evictQueries();
+
+        log.info("Bulk load {} created network {} with {} SolarGrids ({} rejected)", loadId, response.getId(),
+                response.getTotalSolarGrids(), response.getRejectedSolarGrids());
+        return response;
+    }
+
+    /**
+     * Copies the valid SolarGrids to the staging table
+     *
+     * @return The amount of staged SolarGrids and the amount of invalid ones
+     */
+    private long[] copyToStaging(Connection connection, long loadId, Iterator<SolarGridRequest> solarGrids) throws SQLException {
+        final CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_TO_STAGING);
+        try {
+            final StringBuilder rows = new StringBuilder(COPY_BUFFER_SIZE + MAX_NAME_LENGTH * 2);
+            long staged = 0;
+            long invalid = 0;
+
+            while ( solarGrids.hasNext() ) {
+                final SolarGridRequest request = solarGrids.next();
+                if ( request.getName() == null || request.getName().isBlank() || request.getName().length() > MAX_NAME_LENGTH || request.getAge() == null ) {
+                    invalid++;
+                    continue;
+                }
+
+                rows.append(loadId).append(',').append(staged++).append(',');
+                appendQuoted(rows, WordUtils.capitalizeFully(request.getName()));
+                rows.append(',').append(request.getAge()).append(',').append(powerOutputAt(request.getAge())).append('\n');
+
+                if ( rows.length() >= COPY_BUFFER_SIZE )
+                    write(copyIn, rows);
+            }
+            write(copyIn, rows);
+            copyIn.endCopy();
+
+            return new long[]{staged, invalid};
+        } finally {
+            if ( copyIn.isActive() )
+                copyIn.cancelCopy();
+        }
+    }
+
+    private static void appendQuoted(StringBuilder rows, String value) {
+        rows.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if ( c == '"' )
+                rows.append('"');
+            rows.append(c);
+        }
+        rows.append('"');
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        final byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+}
@@ -0,0 +1,214 @@
+package com.fastned.solarcharging.service;
+
+import com.fastned.solarcharging.common.BloomFilter;
+import com.fastned.solarcharging.service.cache.CacheInvalidationBus;
+import com.fastned.solarcharging.service.cache.CacheInvalidationListener;
+import com.fastned.solarcharging.service.cache.InvalidationTopic;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the SolarGrid names in use, compared case-insensitively
+ *
+ * The lowercased names are kept in a Bloom filter which is built on startup and rebuilt periodically, so the names
+ * of deleted SolarGrids are dropped. The names created on this node are published to the other nodes, and a bulk
+ * loaded network is published by its id, so every node reads its names once. A name which is not in the filter is
+ * not in use, and its uniqueness check skips the database. A name missed by the filter, such as one created
+ * concurrently, is still rejected by the unique index on lower(name), so the filter never needs to be exact.
+ */
+@Slf4j(topic = "SolarGridNameIndex")
+@Component
+@RequiredArgsConstructor
+public class SolarGridNameIndex implements CacheInvalidationListener {
+
+    static final String NAME_KEY = "name:";
+    static final String NETWORK_KEY = "network:";
+
+    private static final String COUNT_NAMES = "SELECT count(*) FROM solar_grid";
+    private static final String SELECT_NAMES = "SELECT lower(name) FROM solar_grid";
+    private static final String SELECT_NETWORK_NAMES = "SELECT lower(name) FROM solar_grid WHERE network_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${app.solarGrid.nameIndex.expectedNames:100000}")
+    private long expectedNames;
+
+    @Value("${app.solarGrid.nameIndex.falsePositiveRate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter names;
+
+    /**
+     * Filter being rebuilt, which also receives the names added during the rebuild
+     */
+    private volatile BloomFilter rebuildingNames;
+
+    /**
+     * Amount of names the current filter is sized for, and amount of names put into it
+     */
+    private volatile long capacity;
+    private final AtomicLong size = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /**
+     * Checks if the given name might be in use by a SolarGrid
+     *
+     * @param name
+     * @return false in case the name is certainly not in use
+     */
+    public boolean mightExist(String name) {
+        return names.mightContain(normalize(name));
+    }
+
+    /**
+     * Adds the name of a created SolarGrid to the index of every node
+     *
+     * @param name
+     */
+    public void add(String name) {
+        addAll(List.of(name));
+    }
+
+    /**
+     * Adds the names of several created SolarGrids to the index of every node, publishing them with a single
+     * statement
+     *
+     * @param names
+     */
+    public void addAll(Collection<String> names) {
+        final List<String> lowerNames = new ArrayList<>(names.size());
+        final List<String> keys = new ArrayList<>(names.size());
+        for (final String name : names) {
+            final String lowerName = normalize(name);
+            put(lowerName);
+            lowerNames.add(lowerName);
+            keys.add(NAME_KEY + lowerName);
+        }
+        cacheInvalidationBus.publishAll(InvalidationTopic.SOLAR_GRID_NAME, keys);
+
+        // a rebuild started before the commit does not read the names, so they are put again once committed
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lowerNames.forEach(SolarGridNameIndex.this::put);
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds the names of the SolarGrids of a network, inserted with plain SQL, to the index of every node
+     *
+     * @param networkId
+     */
+    public void addNetwork(long networkId) {
+        cacheInvalidationBus.publish(InvalidationTopic.SOLAR_GRID_NAME, NETWORK_KEY + networkId);
+
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            putNetwork(networkId);
+            return;
+        }
+        // read once committed, the same way the other nodes do
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                putNetwork(networkId);
+            }
+        });
+    }
+
+    @Override
+    public InvalidationTopic topic() {
+        return InvalidationTopic.SOLAR_GRID_NAME;
+    }
+
+    @Override
+    public void invalidateLocally(String key) {
+        if ( key.startsWith(NETWORK_KEY) )
+            putNetwork(Long.parseLong(key.substring(NETWORK_KEY.length())));
+        else if ( key.startsWith(NAME_KEY) )
+            put(key.substring(NAME_KEY.length()));
+    }
+
+    @Override
+    public void invalidateAllLocally() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the filter with the names currently in use
+     */
+    @Scheduled(fixedDelayString = "${app.solarGrid.nameIndex.rebuildIntervalMs:300000}",
+            initialDelayString = "${app.solarGrid.nameIndex.rebuildIntervalMs:300000}")
+    public synchronized void rebuild() {
+        final Long count = jdbcTemplate.queryForObject(COUNT_NAMES, Long.class);
+        // sized with room for the names created until the next rebuild
+        final long filterCapacity = Math.max(expectedNames, (count == null ? 0 : count) * 2);
+        final BloomFilter filter = new BloomFilter(filterCapacity, falsePositiveRate);
+        rebuildingNames = filter;
+
+        try {
+            long loaded = 0;
+            try (Stream<String> lowerNames = jdbcTemplate.queryForStream(SELECT_NAMES, (rs, rowNum) -> rs.getString(1))) {
+                for (final String name : (Iterable<String>) lowerNames::iterator) {
+                    filter.put(name);
+                    loaded++;
+                }
+            }
+
+            names = filter;
+            capacity = filterCapacity;
+            size.set(loaded);
+            log.debug("Rebuilt the SolarGrid name index with {} names", loaded);
+        } finally {
+            rebuildingNames = null;
+        }
+    }
+
+    private void putNetwork(long networkId) {
+        long loaded = 0;
+        try (Stream<String> lowerNames = jdbcTemplate.queryForStream(SELECT_NETWORK_NAMES, (rs, rowNum) -> rs.getString(1), networkId)) {
+            for (final String name : (Iterable<String>) lowerNames::iterator) {
+                put(name);
+                loaded++;
+            }
+        }
+        log.debug("Added the {} SolarGrid names of network {} to the index", loaded, networkId);
+    }
+
+    private void put(String lowerName) {
+        // the rebuilding filter is read first: when it is null, a rebuild is either not started yet (and it reads
+        // the committed name) or already swapped in (and the name is put into the new filter)
+        final BloomFilter rebuilding = rebuildingNames;
+        if ( rebuilding != null )
+            rebuilding.put(lowerName);
+        names.put(lowerName);
+        // beyond its capacity the false positive rate of the filter grows, so it is resized by the next rebuild
+        if ( size.incrementAndGet() == capacity )
+            log.info("The SolarGrid name index reached its capacity of {} names", capacity);
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
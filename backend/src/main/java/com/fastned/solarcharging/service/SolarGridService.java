@@ -1,8 +1,11 @@
 package com.fastned.solarcharging.service;
 
 import com.fastned.solarcharging.common.Constants;
+import com.fastned.solarcharging.common.KeysetCursor;
+import com.fastned.solarcharging.config.ReadFromReplica;
 import com.fastned.solarcharging.dto.mapper.NetworkRequestMapper;
 import com.fastned.solarcharging.dto.request.SolarGridRequest;
+import com.fastned.solarcharging.dto.response.CursorPage;
 import com.fastned.solarcharging.dto.response.NetworkResponse;
 import com.fastned.solarcharging.dto.response.SolarGridResponse;
 import com.fastned.solarcharging.exception.ElementAlreadyExistsException;
@@ -14,19 +17,35 @@ import com.fastned.solarcharging.dto.mapper.SolarGridRequestMapper;
 import com.fastned.solarcharging.dto.mapper.SolarGridResponseMapper;
 import com.fastned.solarcharging.dto.response.CommandResponse;
 import com.fastned.solarcharging.model.SolarGrid;
+import com.fastned.solarcharging.service.simulation.FleetSnapshotStore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-import static com.fastned.solarcharging.service.util.SolarGridUtils.calculatePowerOutput;
+import static com.fastned.solarcharging.service.util.SolarGridUtils.PERSISTENCE_BATCH_SIZE;
+import static com.fastned.solarcharging.service.util.SolarGridUtils.powerOutputAt;
 
 /**
  * Service used for SolarGrid related operations
@@ -45,6 +64,9 @@ public class SolarGridService {
     private final SolarGridRequestMapper solarGridRequestMapper;
     private final SolarGridResponseMapper solarGridResponseMapper;
     private final NetworkRequestMapper networkRequestMapper;
+    private final FleetSnapshotStore fleetSnapshotStore;
+    private final SolarGridNameIndex solarGridNameIndex;
+    private final EntityManager entityManager;
 
     /**
      * Fetches a single solar grid by the given id
@@ -59,27 +81,98 @@ public class SolarGridService {
     }
 
     /**
-     * Fetches a single solar grid by the given id
+     * Fetches all solar grids of the given user, from all of its networks, with a single query
      *
      * @param userId
-     * @return SolarGridResponse
+     * @return List of SolarGridResponse
      */
+    @Transactional(readOnly = true)
     public List<SolarGridResponse> findByUserId(long userId) {
-        List<Network> lstNetworks = networkRepository.findAllByUserId(userId);
+        final List<SolarGridResponse> solarGrids = solarGridRepository.findResponsesByUserId(userId);
 
-        if ( lstNetworks.size() == 0 ) {
-            throw new  NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK);
+        if ( solarGrids.isEmpty() && !networkRepository.existsByUserId(userId) ) {
+            throw new NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK);
         }
+        return solarGrids;
+    }
 
-        List<SolarGridResponse> resp = new ArrayList<>();
+    /**
+     * Fetches a page of the solar grids of the given user, sorted by id unless another sort is given
+     *
+     * @param userId
+     * @param pageable
+     * @return Page of SolarGridResponse
+     */
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public Page<SolarGridResponse> findByUserId(long userId, Pageable pageable) {
+        final Pageable sorted = pageable.getSort().isSorted() ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        final Page<SolarGridResponse> solarGrids = solarGridRepository.findResponsesByUserId(userId, sorted);
+
+        if ( solarGrids.isEmpty() && !networkRepository.existsByUserId(userId) ) {
+            throw new NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK);
+        }
+        return solarGrids;
+    }
+
+    /**
+     * Writes a solar grid of a response, as soon as it is read from the database
+     */
+    @FunctionalInterface
+    public interface SolarGridWriter {
+
+        void write(SolarGridResponse solarGrid) throws IOException;
+    }
 
-        // iterates over all networks, and push all SolarGridResponse for each Network
-        for (final Network n : lstNetworks ) {
-            resp.addAll(solarGridRepository.findAllByNetworkId(n.getId())
-                    .stream().map(solarGridResponseMapper::toDto).toList());
+    /**
+     * Checks that the given user has a network, before the solar grids of a streamed response are written
+     *
+     * @param userId
+     */
+    @Transactional(readOnly = true)
+    public void checkNetworkExists(long userId) {
+        if ( !networkRepository.existsByUserId(userId) ) {
+            throw new NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK);
         }
+    }
+
+    /**
+     * Writes all solar grids of the given user one at a time, reading them from a forward-only database cursor
+     * (fetched 500 rows at a time), so the memory used does not depend on the size of the fleet. The solar grids are
+     * read as DTO projections, so the persistence context does not grow either.
+     *
+     * They are read from the primary, so they can be sent under a version read from the primary too.
+     *
+     * @param userId
+     * @param writer    Writes each solar grid, in id order
+     * @throws IOException in case the writer fails
+     */
+    @Transactional(readOnly = true)
+    public void writeByUserId(long userId, SolarGridWriter writer) throws IOException {
+        write(userId, writer);
+    }
+
+    /**
+     * Writes all solar grids of the given user like writeByUserId, but reads them from the replica when it is
+     * available, so they may lag behind the primary. Not to be used for responses sent under an ETag.
+     *
+     * @param userId
+     * @param writer    Writes each solar grid, in id order
+     * @throws IOException in case the writer fails
+     */
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public void exportByUserId(long userId, SolarGridWriter writer) throws IOException {
+        write(userId, writer);
+    }
 
-        return resp;
+    private void write(long userId, SolarGridWriter writer) throws IOException {
+        try (Stream<SolarGridResponse> solarGrids = solarGridRepository.streamResponsesByUserId(userId)) {
+            final Iterator<SolarGridResponse> iterator = solarGrids.iterator();
+            while ( iterator.hasNext() )
+                writer.write(iterator.next());
+        }
     }
 
     /**
@@ -110,26 +203,115 @@ public class SolarGridService {
     }
 
     /**
-     * Creates a new solar grid using the given request parameters
+     * Fetches a slice of all solar grids ordered by id, following the given cursor. Unlike findAll, the slice is
+     * fetched by seeking the id index, without counting the solar grids.
+     *
+     * @param cursor    The cursor of the previous slice, empty for the first one
+     * @param size      The maximum amount of solar grids of the slice
+     * @return CursorPage of SolarGridResponse
+     */
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public CursorPage<SolarGridResponse> findAll(String cursor, int size) {
+        final long afterId = KeysetCursor.decode(cursor);
+        final Slice<SolarGridResponse> solarGrids = solarGridRepository.findResponsesAfter(afterId,
+                PageRequest.of(0, KeysetCursor.size(size)));
+
+        if (solarGrids.isEmpty() && afterId == 0)
+            throw new NoSuchElementFoundException(Constants.NOT_FOUND_RECORD);
+        return CursorPage.of(solarGrids, SolarGridResponse::getId);
+    }
+
+    /**
+     * Creates a new solar grid using the given request parameters. The database is only checked for the names
+     * which might be in use, and a name taken by a concurrent request is rejected by the unique index on lower(name).
      *
      * @param request
      * @return id of the created solar grid
      */
     public SolarGridResponse create(SolarGridRequest request) {
-        if (solarGridRepository.existsByNameIgnoreCase(request.getName()))
+        if (isNameInUse(request.getName()))
             throw new ElementAlreadyExistsException(Constants.ALREADY_EXISTS_SOLAR_GRID);
 
         final SolarGrid solarGrid = solarGridRequestMapper.toEntity(request);
 
-        solarGrid.setPowerOutput(calculatePowerOutput(request.getAge()));
+        solarGrid.setPowerOutput(powerOutputAt(request.getAge()));
         Optional<Network> net = networkRepository.findById(request.getIdNetwork());
 
         solarGrid.setNetwork(net.get());
-        solarGridRepository.save(solarGrid);
+        try {
+            solarGridRepository.saveAndFlush(solarGrid);
+        } catch (DataIntegrityViolationException e) {
+            throw new ElementAlreadyExistsException(Constants.ALREADY_EXISTS_SOLAR_GRID);
+        }
+        solarGridNameIndex.add(solarGrid.getName());
+        fleetSnapshotStore.invalidate(net.get().getUser().getId());
         log.info(Constants.CREATED_SOLAR_GRID);
         return solarGridResponseMapper.toDto(solarGrid);
     }
 
+    /**
+     * Creates a chunk of new solar grids in a single transaction. Names already in use, either by an existing
+     * solar grid or by a previous request of the chunk, are checked with a single query and their requests are
+     * skipped, as well as requests without name or age. Only the names which might be in use are queried. The solar
+     * grids are inserted in JDBC batches, and a name taken by a concurrent request rejects the whole chunk, which can
+     * then be retried with createAll(requests, false).
+     *
+     * @param requests
+     * @return List of the created SolarGridResponse
+     */
+    @Transactional
+    public List<SolarGridResponse> createAll(List<SolarGridRequest> requests) {
+        return createAll(requests, true);
+    }
+
+    /**
+     * Creates a chunk of new solar grids in a single transaction, as createAll(requests)
+     *
+     * @param requests
+     * @param useNameIndex  false to query all the names of the chunk, such as a name taken concurrently which is
+     *                      not in the name index yet
+     * @return List of the created SolarGridResponse
+     */
+    @Transactional
+    public List<SolarGridResponse> createAll(List<SolarGridRequest> requests, boolean useNameIndex) {
+        final Set<String> names = new HashSet<>();
+        for (final SolarGridRequest request : requests) {
+            if ( request.getName() != null )
+                names.add(request.getName().toLowerCase(Locale.ROOT));
+        }
+        if ( useNameIndex )
+            names.removeIf(name -> !solarGridNameIndex.mightExist(name));
+        final Set<String> usedNames = names.isEmpty() ? new HashSet<>() : new HashSet<>(solarGridRepository.findExistingNames(names));
+
+        final Map<Long, Network> networks = new HashMap<>();
+        final List<SolarGridResponse> created = new ArrayList<>(requests.size());
+        final List<String> createdNames = new ArrayList<>(requests.size());
+        for (final SolarGridRequest request : requests) {
+            if ( request.getName() == null || request.getAge() == null || !usedNames.add(request.getName().toLowerCase(Locale.ROOT)) )
+                continue;
+
+            final SolarGrid solarGrid = solarGridRequestMapper.toEntity(request);
+            solarGrid.setPowerOutput(powerOutputAt(request.getAge()));
+            solarGrid.setNetwork(networks.computeIfAbsent(request.getIdNetwork(), id -> networkRepository.findById(id)
+                    .orElseThrow(() -> new NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK))));
+            entityManager.persist(solarGrid);
+            createdNames.add(solarGrid.getName());
+            created.add(solarGridResponseMapper.toDto(solarGrid));
+
+            // sends the pending inserts as one JDBC batch and detaches them, so the persistence context does not grow
+            if ( created.size() % PERSISTENCE_BATCH_SIZE == 0 )
+                flushAndClear();
+        }
+        flushAndClear();
+        // a name indexed for a chunk which is rolled back only costs a database check
+        solarGridNameIndex.addAll(createdNames);
+
+        networks.values().forEach(network -> fleetSnapshotStore.invalidate(network.getUser().getId()));
+        log.debug("Created {} of {} SolarGrids", created.size(), requests.size());
+        return created;
+    }
+
     /**
      * Updates solar grid using the given request parameters
      *
@@ -141,16 +323,39 @@ public class SolarGridService {
                 .orElseThrow(() -> new NoSuchElementFoundException(Constants.NOT_FOUND_SOLAR_GRID));
 
         // if the name value of the request is different, check if a record with this name already exists
-        if (!request.getName().equalsIgnoreCase(solarGrid.getName()) && solarGridRepository.existsByNameIgnoreCase(request.getName()))
+        if (!request.getName().equalsIgnoreCase(solarGrid.getName()) && isNameInUse(request.getName()))
             throw new ElementAlreadyExistsException(Constants.ALREADY_EXISTS_SOLAR_GRID);
 
-        solarGrid.setPowerOutput(calculatePowerOutput(request.getAge()));
+        solarGrid.setPowerOutput(powerOutputAt(request.getAge()));
 
         solarGridRepository.save(solarGrid);
+        fleetSnapshotStore.invalidate(solarGrid.getNetwork().getUser().getId());
         log.info(Constants.UPDATED_SOLAR_GRID);
         return CommandResponse.builder().id(solarGrid.getId()).build();
     }
 
+    /**
+     * Checks if the given name is in use, querying the database only when the name index might contain it
+     *
+     * @param name
+     * @return true in case a solar grid with this name (case-insensitive) exists
+     */
+    private boolean isNameInUse(String name) {
+        return solarGridNameIndex.mightExist(name) && solarGridRepository.existsByNameIgnoreCase(name);
+    }
+
+    private void flushAndClear() {
+        try {
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            // Hibernate wraps the violation of the unique index on lower(name) raised by the flush
+            if ( e.getCause() instanceof ConstraintViolationException )
+                throw new ElementAlreadyExistsException(Constants.ALREADY_EXISTS_SOLAR_GRID);
+            throw e;
+        }
+        entityManager.clear();
+    }
+
     /**
      * Deletes solar grid by the given id
      *
@@ -160,6 +365,7 @@ public class SolarGridService {
         final SolarGrid solarGrid = solarGridRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementFoundException(Constants.NOT_FOUND_SOLAR_GRID));
         solarGridRepository.delete(solarGrid);
+        fleetSnapshotStore.invalidate(solarGrid.getNetwork().getUser().getId());
         log.info(Constants.DELETED_SOLAR_GRID);
     }
 }
@@ -0,0 +1,171 @@
+package com.fastned.solarcharging.service;
+
+import com.fastned.solarcharging.common.BloomFilter;
+import com.fastned.solarcharging.model.RevokedToken;
+import com.fastned.solarcharging.repository.RevokedTokenRepository;
+import com.fastned.solarcharging.service.cache.CacheInvalidationBus;
+import com.fastned.solarcharging.service.cache.CacheInvalidationListener;
+import com.fastned.solarcharging.service.cache.InvalidationTopic;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.Date;
+import java.util.List;
+
+import static com.fastned.solarcharging.security.JwtUtils.CLAIM_ID;
+
+/**
+ * Service used for revoking JWTs, by logout of a single token or by forced revocation of all the tokens of a user
+ *
+ * Revocations are stored in the revoked_token table, and their keys in an in-memory Bloom filter which is rebuilt
+ * on startup and after each pruning. Checking a token costs a couple of Bloom filter lookups, and only their rare
+ * positives are checked against the database. Revocations are pruned once the tokens they cover are expired.
+ * The keys revoked on a node are added to the filters of the other nodes through the CacheInvalidationBus.
+ */
+@Slf4j(topic = "TokenRevocationService")
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService implements CacheInvalidationListener {
+
+    private static final String USER_KEY_PREFIX = "user:";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Clock clock;
+
+    @Value("${app.security.jwtExpirationMs}")
+    private int jwtExpirationMs;
+
+    @Value("${app.security.revocation.expectedTokens:10000}")
+    private long expectedTokens;
+
+    @Value("${app.security.revocation.falsePositiveRate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter revokedKeys;
+
+    /**
+     * Filter being rebuilt, which also receives the keys revoked during the rebuild
+     */
+    private volatile BloomFilter rebuildingKeys;
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /**
+     * Checks if the token of the given claims is revoked, by itself or by a revocation of all the tokens of its user
+     *
+     * @param claims    Claims of a verified token
+     * @return true in case the token is revoked
+     */
+    public boolean isRevoked(Claims claims) {
+        final String jti = claims.getId();
+        if ( jti != null && revokedKeys.mightContain(jti) && revokedTokenRepository.existsById(jti) )
+            return true;
+
+        // tokens issued before the id claim can only be revoked by their expiration
+        if ( !(claims.get(CLAIM_ID) instanceof Number id) )
+            return false;
+
+        final String userKey = USER_KEY_PREFIX + id.longValue();
+        if ( !revokedKeys.mightContain(userKey) )
+            return false;
+
+        final Date issuedAt = claims.getIssuedAt();
+        return revokedTokenRepository.findById(userKey)
+                .map(revocation -> issuedAt == null || !issuedAt.after(revocation.getRevokedAt()))
+                .orElse(false);
+    }
+
+    /**
+     * Revokes the token of the given claims until its expiration
+     *
+     * @param claims    Claims of a verified token
+     */
+    public void revokeToken(Claims claims) {
+        if ( claims.getId() == null )
+            return;
+
+        final Date now = Date.from(clock.instant());
+        final Date expiresAt = claims.getExpiration() != null ? claims.getExpiration()
+                : new Date(now.getTime() + jwtExpirationMs);
+        revoke(new RevokedToken(claims.getId(), now, expiresAt));
+    }
+
+    /**
+     * Revokes all the tokens issued to the given user until now
+     *
+     * @param userId
+     */
+    public void revokeUserTokens(long userId) {
+        final Date now = Date.from(clock.instant());
+        revoke(new RevokedToken(USER_KEY_PREFIX + userId, now, new Date(now.getTime() + jwtExpirationMs)));
+    }
+
+    private void revoke(RevokedToken revokedToken) {
+        // the revocation is committed before it is added to the filters, so a rebuild cannot miss it
+        revokedTokenRepository.save(revokedToken);
+        addKey(revokedToken.getTokenKey());
+        cacheInvalidationBus.publish(InvalidationTopic.REVOKED_TOKEN, revokedToken.getTokenKey());
+        log.info("Revoked the token(s) of key {} until {}", revokedToken.getTokenKey(), revokedToken.getExpiresAt());
+    }
+
+    private void addKey(String key) {
+        // the rebuilding filter is read first: when it is null, a rebuild is either not started yet (and it reads
+        // the revocation) or already swapped in (and the revocation is put into the new filter)
+        final BloomFilter rebuilding = rebuildingKeys;
+        if ( rebuilding != null )
+            rebuilding.put(key);
+        revokedKeys.put(key);
+    }
+
+    @Override
+    public InvalidationTopic topic() {
+        return InvalidationTopic.REVOKED_TOKEN;
+    }
+
+    @Override
+    public void invalidateLocally(String key) {
+        addKey(key);
+    }
+
+    @Override
+    public void invalidateAllLocally() {
+        rebuild();
+    }
+
+    /**
+     * Deletes the expired revocations, and rebuilds the Bloom filter without their keys
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.pruneIntervalMs:60000}",
+            initialDelayString = "${app.security.revocation.pruneIntervalMs:60000}")
+    public void prune() {
+        final int pruned = revokedTokenRepository.deleteExpired(Date.from(clock.instant()));
+        if ( pruned > 0 )
+            log.info("Pruned {} expired token revocations", pruned);
+
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        // sized with room for the revocations of the next interval
+        final BloomFilter filter = new BloomFilter(Math.max(expectedTokens, revokedTokenRepository.count() * 2), falsePositiveRate);
+        rebuildingKeys = filter;
+        try {
+            final List<String> keys = revokedTokenRepository.findActiveKeys(Date.from(clock.instant()));
+            keys.forEach(filter::put);
+            revokedKeys = filter;
+            log.debug("Rebuilt the revoked tokens filter with {} keys", keys.size());
+        } finally {
+            rebuildingKeys = null;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.fastned.solarcharging.service;
 
 import com.fastned.solarcharging.exception.NoSuchElementFoundException;
 import com.fastned.solarcharging.repository.UserRepository;
+import com.fastned.solarcharging.security.UserDetailsCache;
+import com.fastned.solarcharging.security.UserDetailsImpl;
+import com.fastned.solarcharging.service.cache.SecondLevelCacheInvalidator;
 import com.fastned.solarcharging.dto.mapper.UserRequestMapper;
 import com.fastned.solarcharging.dto.mapper.UserResponseMapper;
 import com.fastned.solarcharging.dto.request.ProfileRequest;
@@ -17,6 +20,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.text.WordUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,6 +43,9 @@ public class UserService {
     private final UserRepository userRepository;
     private final UserRequestMapper userRequestMapper;
     private final UserResponseMapper userResponseMapper;
+    private final UserDetailsCache userDetailsCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final SecondLevelCacheInvalidator secondLevelCacheInvalidator;
 
     /**
      * Fetches a single user by the given id
@@ -64,6 +71,23 @@ public class UserService {
                 .orElseThrow(() -> new NoSuchElementFoundException(NOT_FOUND_USER));
     }
 
+    /**
+     * Fetches the user of the given principal. Principals built from the token claims already carry the id and
+     * the username, so only the other principals are loaded from the database.
+     *
+     * @param principal
+     * @return UserResponse, with only the id and username for principals built from the token claims
+     */
+    public UserResponse findByPrincipal(UserDetails principal) {
+        if ( principal instanceof UserDetailsImpl user && user.getId() != null ) {
+            final UserResponse response = new UserResponse();
+            response.setId(user.getId());
+            response.setUsername(user.getUsername());
+            return response;
+        }
+        return findByName(principal.getUsername());
+    }
+
     /**
      * Fetches a single user (entity) by the given id
      *
@@ -127,6 +151,7 @@ public class UserService {
                 .orElseThrow(() -> new NoSuchElementFoundException(NOT_FOUND_USER));
 
         // update admin role of the user based on the request
+        final Set<Role> previousRoles = new HashSet<>(user.getRoles());
         if (request.getRoles() != null && request.getRoles().contains(RoleType.ROLE_ADMIN.name()))
             user.addRole(new Role(2L, RoleType.ROLE_ADMIN));
         else
@@ -135,6 +160,11 @@ public class UserService {
         user.setFirstName(WordUtils.capitalizeFully(request.getFirstName()));
         user.setLastName(WordUtils.capitalizeFully(request.getLastName()));
         userRepository.save(user);
+        secondLevelCacheInvalidator.evict(User.class, user.getId());
+        userDetailsCache.evict(user.getUsername());
+        // the authorities are read from the roles claim of the tokens, so they must not outlive a change of roles
+        if ( !previousRoles.equals(user.getRoles()) )
+            tokenRevocationService.revokeUserTokens(user.getId());
         log.info(UPDATED_USER);
         return CommandResponse.builder().id(user.getId()).build();
     }
@@ -152,6 +182,8 @@ public class UserService {
         user.setFirstName(WordUtils.capitalizeFully(request.getFirstName()));
         user.setLastName(WordUtils.capitalizeFully(request.getLastName()));
         userRepository.save(user);
+        secondLevelCacheInvalidator.evict(User.class, user.getId());
+        userDetailsCache.evict(user.getUsername());
         log.info(UPDATED_USER);
         return CommandResponse.builder().id(user.getId()).build();
     }
@@ -165,6 +197,23 @@ public class UserService {
         final User user = userRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementFoundException(NOT_FOUND_USER));
         userRepository.delete(user);
+        secondLevelCacheInvalidator.evict(User.class, id);
+        userDetailsCache.evict(user.getUsername());
+        // the tokens carry the principal, so they must not outlive the user
+        tokenRevocationService.revokeUserTokens(id);
         log.info(DELETED_USER);
     }
+
+    /**
+     * Revokes all the tokens issued to the given user until now, forcing the user to log in again
+     *
+     * @param id
+     */
+    public void revokeTokens(long id) {
+        if ( !userRepository.existsById(id) )
+            throw new NoSuchElementFoundException(NOT_FOUND_USER);
+
+        tokenRevocationService.revokeUserTokens(id);
+        log.info(REVOKED_USER_TOKENS);
+    }
 }
@@ -0,0 +1,193 @@
+package com.fastned.solarcharging.service.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Keeps the in-process caches of the nodes coherent, using LISTEN/NOTIFY of PostgreSQL
+ *
+ * Invalidations are published with pg_notify on the CHANNEL, as "nodeId:topic:key". Inside a transaction, the
+ * notification is only delivered after the commit, and it is discarded by a rollback. Each node listens on a
+ * single dedicated connection, out of the connection pool, and applies the invalidations of the other nodes to
+ * the CacheInvalidationListeners of their topic. Since notifications sent while a node is not listening are lost,
+ * all the caches are invalidated each time the listening connection is (re)established.
+ */
+@Slf4j(topic = "CacheInvalidationBus")
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+    public static final String CHANNEL = "cache_invalidation";
+
+    private static final String SEPARATOR = ":";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectProvider<CacheInvalidationListener> listeners;
+
+    @Value("${app.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.invalidation.pollTimeoutMs:500}")
+    private int pollTimeoutMs;
+
+    @Value("${app.cache.invalidation.reconnectDelayMs:5000}")
+    private long reconnectDelayMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    /**
+     * Publishes an invalidation to the other nodes. The caller is responsible for the local invalidation.
+     *
+     * @param topic
+     * @param key
+     */
+    public void publish(InvalidationTopic topic, Object key) {
+        if ( !enabled || key == null )
+            return;
+
+        final String payload = nodeId + SEPARATOR + topic.name() + SEPARATOR + key;
+        jdbcTemplate.query("select pg_notify(?, ?)", resultSet -> null, CHANNEL, payload);
+    }
+
+    /**
+     * Publishes the invalidations of several keys of the same topic to the other nodes, with a single statement
+     *
+     * @param topic
+     * @param keys
+     */
+    public void publishAll(InvalidationTopic topic, Collection<String> keys) {
+        if ( !enabled || keys.isEmpty() )
+            return;
+
+        final String prefix = nodeId + SEPARATOR + topic.name() + SEPARATOR;
+        jdbcTemplate.query("select count(pg_notify(?, ? || k)) from unnest(?) k", statement -> {
+            statement.setString(1, CHANNEL);
+            statement.setString(2, prefix);
+            statement.setArray(3, statement.getConnection().createArrayOf("text", keys.toArray()));
+        }, resultSet -> null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if ( !enabled )
+            return;
+
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if ( listenerThread != null ) {
+            listenerThread.interrupt();
+            listenerThread.join(pollTimeoutMs * 2L);
+        }
+    }
+
+    private void listen() {
+        while ( running ) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening to cache invalidations as node {}", nodeId);
+                invalidateAll();
+
+                final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while ( running ) {
+                    final PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if ( notifications == null )
+                        continue;
+
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if ( !running )
+                    return;
+
+                log.warn("Cache invalidation connection lost, reconnecting in {} ms: {}", reconnectDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        final Properties properties = new Properties();
+        if ( dataSourceProperties.determineUsername() != null )
+            properties.setProperty("user", dataSourceProperties.determineUsername());
+        if ( dataSourceProperties.determinePassword() != null )
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+    }
+
+    /**
+     * Applies an invalidation received from the channel, unless it was published by this node
+     *
+     * @param payload   The notification payload, as "nodeId:topic:key"
+     */
+    void dispatch(String payload) {
+        final String[] parts = payload.split(SEPARATOR, 3);
+        if ( parts.length != 3 || parts[0].equals(nodeId) )
+            return;
+
+        final InvalidationTopic topic;
+        try {
+            topic = InvalidationTopic.valueOf(parts[1]);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignored cache invalidation of unknown topic: {}", payload);
+            return;
+        }
+
+        listeners.orderedStream()
+                .filter(listener -> listener.topic() == topic)
+                .forEach(listener -> {
+                    try {
+                        listener.invalidateLocally(parts[2]);
+                    } catch (RuntimeException e) {
+                        log.error("Cannot apply cache invalidation {}", payload, e);
+                    }
+                });
+    }
+
+    private void invalidateAll() {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.invalidateAllLocally();
+            } catch (RuntimeException e) {
+                log.error("Cannot invalidate the {} cache", listener.topic(), e);
+            }
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package com.fastned.solarcharging.service.cache;
+
+/**
+ * In-process cache which applies the invalidations published by the other nodes
+ */
+public interface CacheInvalidationListener {
+
+    InvalidationTopic topic();
+
+    /**
+     * Applies an invalidation published by another node, without publishing it again
+     *
+     * @param key   The key of the invalidation, as published
+     */
+    void invalidateLocally(String key);
+
+    /**
+     * Invalidates all the entries, since invalidations may have been missed while the node was not listening
+     */
+    void invalidateAllLocally();
+}
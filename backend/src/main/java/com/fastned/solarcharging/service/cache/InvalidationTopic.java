@@ -0,0 +1,33 @@
+package com.fastned.solarcharging.service.cache;
+
+/**
+ * In-process caches which are kept coherent between the nodes by the CacheInvalidationBus
+ */
+public enum InvalidationTopic {
+
+    /**
+     * FleetSnapshotStore and the simulation results of a user, keyed by the user id
+     */
+    FLEET,
+
+    /**
+     * UserDetailsCache, keyed by the username
+     */
+    USER_DETAILS,
+
+    /**
+     * Revoked tokens of the TokenRevocationService, keyed by the revocation key
+     */
+    REVOKED_TOKEN,
+
+    /**
+     * SolarGridNameIndex, keyed by "name:" and the lowercased name of a created SolarGrid, or by "network:" and the
+     * id of a bulk loaded network
+     */
+    SOLAR_GRID_NAME,
+
+    /**
+     * Second-level cache of Hibernate, keyed by "entityName#id" of the changed entity, or by "queries"
+     */
+    SECOND_LEVEL_CACHE
+}
@@ -0,0 +1,92 @@
+package com.fastned.solarcharging.service.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the second-level cache of Hibernate coherent between the nodes
+ *
+ * Hibernate keeps the regions of a node up to date with the changes made through its own entities, but not with the
+ * changes of the other nodes, nor with the rows written with plain SQL. The changed entities are published as
+ * "entityName#id", and the other nodes evict them together with the cached collections and query results, which
+ * may refer to them. The rows written with plain SQL evict the query results on every node. It runs before the
+ * other listeners, so the caches built on top of the entities never reload them from stale regions.
+ */
+@Slf4j(topic = "SecondLevelCacheInvalidator")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidator implements CacheInvalidationListener {
+
+    static final String QUERIES = "queries";
+
+    private static final String SEPARATOR = "#";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * Evicts the given entity on the other nodes, since Hibernate already updates the regions of this node
+     *
+     * @param entityClass
+     * @param id
+     */
+    public void evict(Class<?> entityClass, Long id) {
+        if ( id == null )
+            return;
+
+        cacheInvalidationBus.publish(InvalidationTopic.SECOND_LEVEL_CACHE, entityClass.getName() + SEPARATOR + id);
+    }
+
+    /**
+     * Evicts the cached query results on every node, after rows were written with plain SQL. Within a transaction,
+     * they are evicted again once it is completed, so the results cached meanwhile are not kept.
+     */
+    public void evictQueries() {
+        cache().evictQueryRegions();
+        cacheInvalidationBus.publish(InvalidationTopic.SECOND_LEVEL_CACHE, QUERIES);
+
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache().evictQueryRegions();
+                }
+            });
+        }
+    }
+
+    @Override
+    public InvalidationTopic topic() {
+        return InvalidationTopic.SECOND_LEVEL_CACHE;
+    }
+
+    @Override
+    public void invalidateLocally(String key) {
+        final Cache cache = cache();
+        if ( !QUERIES.equals(key) ) {
+            final String[] parts = key.split(SEPARATOR, 2);
+            cache.evictEntityData(parts[0], Long.valueOf(parts[1]));
+            cache.evictCollectionData();
+        }
+        cache.evictQueryRegions();
+        log.debug("Evicted {} from the second-level cache", key);
+    }
+
+    @Override
+    public void invalidateAllLocally() {
+        cache().evictAllRegions();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -0,0 +1,129 @@
+package com.fastned.solarcharging.service.ingestion;
+
+import com.fastned.solarcharging.dto.request.SolarGridRequest;
+import com.fastned.solarcharging.dto.response.IngestionJobResponse;
+import com.fastned.solarcharging.dto.response.NetworkCreateResponse;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of an ingestion running in background. The counters are updated by the worker thread while the SolarGrids
+ * are parsed and persisted, and can be read at any time by the job endpoint.
+ */
+@Getter
+public class IngestionJob implements IngestionProgress {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final long userId;
+    private final Instant submittedAt;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Long networkId;
+    private volatile String result;
+    private volatile String error;
+
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsPersisted = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+
+    public IngestionJob(String id, long userId, Instant submittedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.submittedAt = submittedAt;
+    }
+
+    /**
+     * Wraps the given SolarGrids, counting each one of them as parsed when it is read
+     *
+     * @param solarGrids
+     * @return Iterator of SolarGridRequest
+     */
+    public Iterator<SolarGridRequest> parsing(Iterator<SolarGridRequest> solarGrids) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return solarGrids.hasNext();
+            }
+
+            @Override
+            public SolarGridRequest next() {
+                final SolarGridRequest solarGrid = solarGrids.next();
+                rowsParsed.incrementAndGet();
+                return solarGrid;
+            }
+        };
+    }
+
+    @Override
+    public void chunkPersisted(long persisted, long rejected) {
+        rowsPersisted.addAndGet(persisted);
+        rowsRejected.addAndGet(rejected);
+    }
+
+    synchronized void start(Instant now) {
+        startedAt = now;
+        status = Status.RUNNING;
+    }
+
+    synchronized void complete(NetworkCreateResponse response, Instant now) {
+        // the response has the final numbers, also for loaders which do not report the progress of each chunk
+        rowsPersisted.set(response.getTotalSolarGrids());
+        rowsRejected.set(response.getRejectedSolarGrids());
+        networkId = response.getId();
+        result = response.toString();
+        finishedAt = now;
+        status = Status.COMPLETED;
+    }
+
+    synchronized void fail(Exception e, Instant now) {
+        error = e.getMessage();
+        finishedAt = now;
+        status = Status.FAILED;
+    }
+
+    boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    /**
+     * Creates the response with the current progress of the job
+     *
+     * @param now   The current instant, used for the throughput of running jobs
+     * @return IngestionJobResponse
+     */
+    public synchronized IngestionJobResponse toResponse(Instant now) {
+        final IngestionJobResponse response = new IngestionJobResponse();
+        response.setId(id);
+        response.setStatus(status.name());
+        response.setNetworkId(networkId);
+        response.setRowsParsed(rowsParsed.get());
+        response.setRowsPersisted(rowsPersisted.get());
+        response.setRowsRejected(rowsRejected.get());
+        response.setSubmittedAt(toDateTime(submittedAt));
+        response.setStartedAt(toDateTime(startedAt));
+        response.setFinishedAt(toDateTime(finishedAt));
+        response.setResult(result);
+        response.setError(error);
+
+        if ( startedAt != null ) {
+            final long elapsedMs = Duration.between(startedAt, finishedAt != null ? finishedAt : now).toMillis();
+            response.setElapsedMs(elapsedMs);
+            response.setRowsPerSecond(elapsedMs > 0 ? rowsParsed.get() * 1000.0 / elapsedMs : 0);
+        }
+        return response;
+    }
+
+    private static LocalDateTime toDateTime(Instant instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,231 @@
+package com.fastned.solarcharging.service.ingestion;
+
+import com.fastned.solarcharging.common.Constants;
+import com.fastned.solarcharging.dto.request.SolarGridRequest;
+import com.fastned.solarcharging.dto.response.IngestionJobResponse;
+import com.fastned.solarcharging.dto.response.NetworkCreateResponse;
+import com.fastned.solarcharging.dto.response.UserResponse;
+import com.fastned.solarcharging.exception.NoSuchElementFoundException;
+import com.fastned.solarcharging.exception.ServiceBusyException;
+import com.fastned.solarcharging.service.NetworkService;
+import com.fastned.solarcharging.service.SolarGridBulkLoader;
+import com.fastned.solarcharging.service.SolarGridService;
+import com.fastned.solarcharging.service.util.SolarGridFileReader;
+import com.fastned.solarcharging.service.util.SolarGridUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service used for running the ingestion of networks in background
+ *
+ * The ingestions run on a bounded pool of workers, with a bounded queue: when both are full, new ingestions are
+ * refused with ServiceBusyException instead of holding request threads. The jobs are kept in a bounded store,
+ * and finished jobs expire after jobTtlMinutes.
+ */
+@Slf4j(topic = "IngestionJobService")
+@Service
+@RequiredArgsConstructor
+public class IngestionJobService {
+
+    private final NetworkService networkService;
+    private final SolarGridService solarGridService;
+    private final SolarGridBulkLoader solarGridBulkLoader;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    @Value("${app.ingestion.workers:2}")
+    private int workers;
+
+    @Value("${app.ingestion.queueCapacity:16}")
+    private int queueCapacity;
+
+    @Value("${app.ingestion.maxJobs:1000}")
+    private int maxJobs;
+
+    @Value("${app.ingestion.jobTtlMinutes:60}")
+    private long jobTtlMinutes;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, IngestionJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IngestionJob> eldest) {
+            return size() > maxJobs;
+        }
+    };
+
+    @PostConstruct
+    void init() {
+        final AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "ingestion-" + threads.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Interrupts the running ingestions, and releases the resources of the queued ones, which are never run
+     */
+    @PreDestroy
+    void shutdown() {
+        for (final Runnable queued : executor.shutdownNow()) {
+            if ( queued instanceof QueuedIngestion ingestion )
+                ingestion.discard().run();
+        }
+    }
+
+    /**
+     * Submits the ingestion of a network file. The file is copied to a temporary file, since the upload is
+     * discarded at the end of the request.
+     *
+     * @param file          The uploaded network file
+     * @param bulkMode      Whether the file is loaded with the bulk loader
+     * @param userResponse
+     * @param elapsedTimeDays
+     * @return IngestionJobResponse of the queued job
+     */
+    public IngestionJobResponse submitFile(MultipartFile file, boolean bulkMode, UserResponse userResponse, Integer elapsedTimeDays) {
+        final Path path;
+        try {
+            path = Files.createTempFile("network-", ".json");
+            file.transferTo(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return submit(userResponse, job -> {
+            try (SolarGridFileReader reader = new SolarGridFileReader(objectMapper.getFactory().createParser(path.toFile()))) {
+                if ( bulkMode )
+                    return solarGridBulkLoader.load(job.parsing(reader), userResponse);
+
+                return SolarGridUtils.processIncomingNetwork(networkService, solarGridService, job.parsing(reader), userResponse, elapsedTimeDays, job);
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }, () -> deleteQuietly(path));
+    }
+
+    /**
+     * Submits the ingestion of the given SolarGrids
+     *
+     * @param solarGrids
+     * @param userResponse
+     * @return IngestionJobResponse of the queued job
+     */
+    public IngestionJobResponse submitList(List<SolarGridRequest> solarGrids, UserResponse userResponse) {
+        return submit(userResponse, job ->
+                SolarGridUtils.processIncomingNetwork(networkService, solarGridService, job.parsing(solarGrids.iterator()), userResponse, null, job), () -> {});
+    }
+
+    /**
+     * Fetches a job of the given user by the given id
+     *
+     * @param id
+     * @param userId
+     * @return IngestionJobResponse
+     */
+    public IngestionJobResponse findById(String id, long userId) {
+        final IngestionJob job;
+        synchronized (jobs) {
+            purgeExpired();
+            job = jobs.get(id);
+        }
+
+        if ( job == null || job.getUserId() != userId )
+            throw new NoSuchElementFoundException(Constants.NOT_FOUND_JOB);
+
+        return job.toResponse(clock.instant());
+    }
+
+    @FunctionalInterface
+    private interface Ingestion {
+
+        NetworkCreateResponse run(IngestionJob job) throws IOException;
+    }
+
+    /**
+     * Ingestion waiting in the queue of the executor
+     *
+     * @param discard   Releases the resources of the ingestion in case it is never run
+     */
+    private record QueuedIngestion(Runnable task, Runnable discard) implements Runnable {
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    /**
+     * Queues the given ingestion
+     *
+     * @param userResponse
+     * @param ingestion
+     * @param discard       Releases the resources of the ingestion in case it is refused, or dropped on shutdown
+     * @return IngestionJobResponse of the queued job
+     */
+    private IngestionJobResponse submit(UserResponse userResponse, Ingestion ingestion, Runnable discard) {
+        final IngestionJob job = new IngestionJob(UUID.randomUUID().toString(), userResponse.getId(), clock.instant());
+
+        synchronized (jobs) {
+            purgeExpired();
+            try {
+                executor.execute(new QueuedIngestion(() -> run(job, ingestion), discard));
+            } catch (RejectedExecutionException e) {
+                discard.run();
+                throw new ServiceBusyException(Constants.INGESTION_BUSY, e);
+            }
+            jobs.put(job.getId(), job);
+        }
+
+        log.info("Ingestion job {} queued for user {}", job.getId(), userResponse.getId());
+        return job.toResponse(clock.instant());
+    }
+
+    private void run(IngestionJob job, Ingestion ingestion) {
+        job.start(clock.instant());
+        try {
+            job.complete(ingestion.run(job), clock.instant());
+            log.info("Ingestion job {} completed with {} SolarGrids", job.getId(), job.getRowsPersisted().get());
+        } catch (Exception e) {
+            job.fail(e, clock.instant());
+            log.error("Ingestion job {} failed", job.getId(), e);
+        }
+    }
+
+    private void purgeExpired() {
+        final Instant expiration = clock.instant().minus(Duration.ofMinutes(jobTtlMinutes));
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(expiration));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Temporary file {} could not be deleted", path, e);
+        }
+    }
+}
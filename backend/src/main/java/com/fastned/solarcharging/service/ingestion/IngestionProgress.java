@@ -0,0 +1,16 @@
+package com.fastned.solarcharging.service.ingestion;
+
+/**
+ * Receives the progress of an ingestion, after each chunk of SolarGrids is persisted
+ */
+@FunctionalInterface
+public interface IngestionProgress {
+
+    IngestionProgress NONE = (persisted, rejected) -> { };
+
+    /**
+     * @param persisted     The amount of SolarGrids persisted by the chunk
+     * @param rejected      The amount of SolarGrids rejected by the chunk
+     */
+    void chunkPersisted(long persisted, long rejected);
+}
@@ -0,0 +1,18 @@
+package com.fastned.solarcharging.service.simulation;
+
+/**
+ * Amount of SolarGrids for each distinct age, used to run simulations in O(distinct ages) instead of O(SolarGrids)
+ *
+ * @param ages      The distinct ages in days
+ * @param counts    The amount of SolarGrids with the age in the same position
+ */
+public record AgeHistogram(int[] ages, long[] counts) {
+
+    public int size() {
+        return ages.length;
+    }
+
+    public boolean isEmpty() {
+        return ages.length == 0;
+    }
+}
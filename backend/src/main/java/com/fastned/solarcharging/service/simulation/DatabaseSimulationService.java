@@ -0,0 +1,65 @@
+package com.fastned.solarcharging.service.simulation;
+
+import com.fastned.solarcharging.common.Constants;
+import com.fastned.solarcharging.exception.NoSuchElementFoundException;
+import com.fastned.solarcharging.repository.NetworkRepository;
+import com.fastned.solarcharging.repository.SolarGridDailyEnergy;
+import com.fastned.solarcharging.repository.SolarGridRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service used for running the simulations inside PostgreSQL
+ *
+ * The SolarGrids of the user are grouped by age, and the energy of each age is calculated by the
+ * solar_grid_cumulative_energy function, the SQL version of SolarSimulationEngine.cumulativeEnergy. Only the totals
+ * are sent back, so the size of the result does not depend on the size of the fleet, and no fleet snapshot needs
+ * to be loaded. A user without any network is not found, the same way as by the simulations in memory. The totals
+ * are kept by the SimulationResultCache, so the queries are sent to the primary, even when there is a replica.
+ */
+@Slf4j(topic = "DatabaseSimulationService")
+@Service
+@RequiredArgsConstructor
+public class DatabaseSimulationService {
+
+    private final SolarGridRepository solarGridRepository;
+    private final NetworkRepository networkRepository;
+
+    /**
+     * Calculates the total energy produced by all the SolarGrids of the user during the next days
+     *
+     * @param userId
+     * @param days      The amount of days of the simulation
+     * @return The total amount of energy produced, in kWh
+     * @throws NoSuchElementFoundException in case the user has no network
+     */
+    @Transactional(readOnly = true)
+    public double totalEnergyOverDays(long userId, int days) {
+        final Double total = solarGridRepository.sumEnergyOverDaysByUserId(userId, days);
+        // a fleet without SolarGrids sums up to 0, so the network is only checked then
+        if ( (total == null || total == 0) && !networkRepository.existsByUserId(userId) )
+            throw new NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK);
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * Calculates the total energy produced by all the SolarGrids of the user at each day of a series
+     *
+     * @param userId
+     * @param from      The first day of the series
+     * @param to        The last day of the series (inclusive)
+     * @param step      The amount of days between two points
+     * @return The total energy of each day of the series, in day order
+     * @throws NoSuchElementFoundException in case the user has no network
+     */
+    @Transactional(readOnly = true)
+    public List<SolarGridDailyEnergy> outputCurve(long userId, int from, int to, int step) {
+        if ( !networkRepository.existsByUserId(userId) )
+            throw new NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK);
+        return solarGridRepository.sumEnergyCurveByUserId(userId, from, to, step);
+    }
+}
@@ -0,0 +1,38 @@
+package com.fastned.solarcharging.service.simulation;
+
+/**
+ * Read-only representation of all the SolarGrids of a user, grouped by age, used by the simulations
+ *
+ * The arrays of the histogram are shared with the callers and must not be modified.
+ */
+public final class FleetSnapshot {
+
+    private final long version;
+    private final AgeHistogram histogram;
+    private final long size;
+
+    public FleetSnapshot(long version, AgeHistogram histogram) {
+        this.version = version;
+        this.histogram = histogram;
+        long total = 0;
+        for (final long count : histogram.counts()) {
+            total += count;
+        }
+        this.size = total;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return The amount of SolarGrids of the fleet
+     */
+    public long size() {
+        return size;
+    }
+
+    public AgeHistogram histogram() {
+        return histogram;
+    }
+}
@@ -0,0 +1,151 @@
+package com.fastned.solarcharging.service.simulation;
+
+import com.fastned.solarcharging.common.Constants;
+import com.fastned.solarcharging.exception.NoSuchElementFoundException;
+import com.fastned.solarcharging.repository.NetworkRepository;
+import com.fastned.solarcharging.repository.SolarGridAgeCount;
+import com.fastned.solarcharging.repository.SolarGridRepository;
+import com.fastned.solarcharging.service.cache.CacheInvalidationBus;
+import com.fastned.solarcharging.service.cache.CacheInvalidationListener;
+import com.fastned.solarcharging.service.cache.InvalidationTopic;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory store of the SolarGrids of each user grouped by age (FleetSnapshot)
+ *
+ * Snapshots are loaded lazily with a single GROUP BY age query on the first simulation of a user, and are
+ * invalidated by every write on the SolarGrids of that user. Each snapshot keeps the fleet version it was loaded
+ * for, so a snapshot loaded concurrently with a write is never served after the invalidation. Invalidations are also
+ * published to the other nodes through the CacheInvalidationBus.
+ *
+ * Snapshots and versions are kept in bounded caches. Versions are drawn from a single increasing sequence, so a
+ * version evicted and assigned again is always greater than the ones handed out before for the same user.
+ */
+@Slf4j(topic = "FleetSnapshotStore")
+@Component
+@RequiredArgsConstructor
+public class FleetSnapshotStore implements CacheInvalidationListener {
+
+    private final SolarGridRepository solarGridRepository;
+    private final NetworkRepository networkRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${app.simulation.fleetSnapshot.maxSnapshots:10000}")
+    private long maxSnapshots;
+
+    @Value("${app.simulation.fleetSnapshot.maxVersions:100000}")
+    private long maxVersions;
+
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    private Cache<Long, FleetSnapshot> snapshots;
+    private Cache<Long, Long> versions;
+
+    @PostConstruct
+    void init() {
+        snapshots = Caffeine.newBuilder().maximumSize(maxSnapshots).build();
+        versions = Caffeine.newBuilder().maximumSize(maxVersions).build();
+    }
+
+    /**
+     * Fetches the snapshot of the SolarGrids of the given user, loading it in case it is not available
+     *
+     * @param userId
+     * @return FleetSnapshot
+     */
+    public FleetSnapshot get(long userId) {
+        final FleetSnapshot snapshot = snapshots.getIfPresent(userId);
+        final long version = version(userId);
+        if ( snapshot != null && snapshot.version() == version )
+            return snapshot;
+
+        final FleetSnapshot loaded = load(userId, version);
+        snapshots.asMap().merge(userId, loaded, (current, candidate) -> current.version() >= candidate.version() ? current : candidate);
+        return loaded;
+    }
+
+    /**
+     * Fetches the current fleet version of the given user, which changes with every write on its SolarGrids
+     *
+     * @param userId
+     * @return version
+     */
+    public long version(long userId) {
+        return versions.get(userId, id -> versionSequence.incrementAndGet());
+    }
+
+    /**
+     * Invalidates the snapshot of the given user. In case there is an active transaction, the snapshot is
+     * invalidated again after its completion, so a snapshot loaded before the commit is not kept.
+     *
+     * @param userId
+     */
+    public void invalidate(Long userId) {
+        if ( userId == null )
+            return;
+
+        evict(userId);
+        cacheInvalidationBus.publish(InvalidationTopic.FLEET, userId);
+
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    @Override
+    public InvalidationTopic topic() {
+        return InvalidationTopic.FLEET;
+    }
+
+    @Override
+    public void invalidateLocally(String userId) {
+        evict(Long.parseLong(userId));
+    }
+
+    @Override
+    public void invalidateAllLocally() {
+        // the versions assigned from now on are greater than all the current ones
+        versions.invalidateAll();
+        snapshots.invalidateAll();
+    }
+
+    private void evict(long userId) {
+        versions.put(userId, versionSequence.incrementAndGet());
+        snapshots.invalidate(userId);
+    }
+
+    private FleetSnapshot load(long userId, long version) {
+        final List<SolarGridAgeCount> rows = solarGridRepository.countByAgeForUserId(userId);
+
+        if ( rows.isEmpty() && !networkRepository.existsByUserId(userId) ) {
+            throw new NoSuchElementFoundException(Constants.NOT_FOUND_NETWORK);
+        }
+
+        final int[] ages = new int[rows.size()];
+        final long[] counts = new long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            ages[i] = rows.get(i).getAge();
+            counts[i] = rows.get(i).getTotal();
+        }
+
+        final FleetSnapshot snapshot = new FleetSnapshot(version, new AgeHistogram(ages, counts));
+        log.debug("Loaded fleet snapshot of user {} with {} SolarGrids in {} ages", userId, snapshot.size(), rows.size());
+        return snapshot;
+    }
+}
@@ -0,0 +1,84 @@
+package com.fastned.solarcharging.service.simulation;
+
+import static com.fastned.solarcharging.service.util.SolarGridUtils.*;
+
+/**
+ * Cursor over the total energy produced by a fleet of SolarGrids, computed incrementally day by day
+ *
+ * The daily production of a SolarGrid only changes when its production starts, at each yearly degradation step
+ * and when it breaks down. Those changes are precomputed as daily deltas of the fleet production rate, so each
+ * day of the simulation costs a single addition, whatever the size of the fleet. Since every SolarGrid is broken
+ * down after its lifetime, the memory used is bounded by the lifetime, not by the simulated period.
+ *
+ * The cursor only moves forward: energyAt must be called with non-decreasing days.
+ */
+public final class ProductionCurve {
+
+    /**
+     * Changes of the fleet production rate (kWh per day) at each day of the simulation
+     */
+    private final double[] rateChanges = new double[LIFETIME_IN_DAYS + 1];
+
+    private double rate;
+    private double energy;
+    private int day;
+
+    public ProductionCurve(AgeHistogram histogram) {
+        final int[] ages = histogram.ages();
+        final long[] counts = histogram.counts();
+
+        for (int i = 0; i < ages.length; i++) {
+            final int age = Math.max(ages[i], 0);
+            rate += counts[i] * dailyEnergy(age);
+
+            if ( age >= LIFETIME_IN_DAYS )
+                continue;
+
+            for (int breakpoint = nextBreakpoint(age); ; breakpoint = nextBreakpoint(breakpoint)) {
+                rateChanges[breakpoint - age] += counts[i] * (dailyEnergy(breakpoint) - dailyEnergy(breakpoint - 1));
+                if ( breakpoint >= LIFETIME_IN_DAYS )
+                    break;
+            }
+        }
+    }
+
+    private static double dailyEnergy(int age) {
+        return powerOutputAt(age) * FULL_SUN_HOURS_PER_DAY;
+    }
+
+    /**
+     * Calculates the next age, after the given one, in which the power output of a SolarGrid changes
+     *
+     * @param age   The age of the SolarGrid in days, lower than its lifetime
+     * @return The age in days of the next change
+     */
+    private static int nextBreakpoint(int age) {
+        if ( age <= DAYS_POWER_PRODUCTION_ON_HOLD )
+            return DAYS_POWER_PRODUCTION_ON_HOLD + 1;
+
+        final int nextYear = DAYS_POWER_PRODUCTION_ON_HOLD + ((age - DAYS_POWER_PRODUCTION_ON_HOLD) / DAYS_IN_A_YEAR + 1) * DAYS_IN_A_YEAR;
+        return Math.min(nextYear, LIFETIME_IN_DAYS);
+    }
+
+    /**
+     * Moves the cursor forward and calculates the total energy produced by the fleet during the given days
+     *
+     * @param days  The amount of days of the simulation, not lower than the one of the previous call
+     * @return The total amount of energy produced, in kWh
+     */
+    public double energyAt(int days) {
+        if ( days < day )
+            throw new IllegalArgumentException("The production curve only moves forward");
+
+        // after the lifetime, all SolarGrids are broken down and the energy does not change anymore
+        final int target = Math.min(days, LIFETIME_IN_DAYS);
+        while ( day < target ) {
+            energy += rate;
+            day++;
+            rate += rateChanges[day];
+        }
+        day = Math.max(day, days);
+
+        return energy;
+    }
+}
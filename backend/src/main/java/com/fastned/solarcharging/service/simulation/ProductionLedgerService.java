@@ -0,0 +1,212 @@
+package com.fastned.solarcharging.service.simulation;
+
+import com.fastned.solarcharging.config.ReadFromReplica;
+import com.fastned.solarcharging.dto.response.DailyProductionResponse;
+import com.fastned.solarcharging.dto.response.ProducedOutputResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service used for keeping the production ledger, the energy produced by each network per day
+ *
+ * Once a day is over, the energy produced by the SolarGrids of each network during that day is stored in the
+ * production_ledger table, together with the energy produced since the first day of the ledger. The age of a
+ * SolarGrid on a day is its age at creation plus the days elapsed since its created_at, and its energy is
+ * calculated by solar_grid_cumulative_energy. The output so far of a user is then read from the latest row of each
+ * of its networks, instead of being recomputed over the fleet.
+ *
+ * Days are stored in UTC, according to the Clock of ClockConfig. The daily rows older than the compaction age are
+ * rolled up into production_ledger_monthly, and the monthly rows older than the retention period are deleted. The
+ * job holds a PostgreSQL advisory lock, so only one node runs it at a time.
+ */
+@Slf4j(topic = "ProductionLedgerService")
+@Service
+@RequiredArgsConstructor
+public class ProductionLedgerService {
+
+    /**
+     * Key of the advisory lock held by the node materializing the ledger, released at the end of its transaction
+     */
+    static final long LEDGER_LOCK_KEY = 2025L;
+
+    static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(?)";
+
+    static final String LAST_DAY_SINCE = "SELECT max(production_date) FROM production_ledger WHERE production_date >= ?";
+
+    static final String LAST_DAY = "SELECT max(production_date) FROM production_ledger";
+
+    static final String FIRST_PRODUCTION_DAY = "SELECT CAST(min(created_at) AS DATE) FROM solar_grid";
+
+    /**
+     * Energy of each network during the given day, added to its cumulative energy before that day
+     */
+    static final String MATERIALIZE_DAY = """
+            INSERT INTO production_ledger (network_id, production_date, energy_kwh, cumulative_kwh)
+            SELECT d.network_id, CAST(? AS DATE), d.energy_kwh,
+                   d.energy_kwh + COALESCE(
+                           (SELECT l.cumulative_kwh FROM production_ledger l
+                            WHERE l.network_id = d.network_id AND l.production_date < CAST(? AS DATE)
+                            ORDER BY l.production_date DESC LIMIT 1),
+                           (SELECT m.cumulative_kwh FROM production_ledger_monthly m
+                            WHERE m.network_id = d.network_id
+                            ORDER BY m.production_month DESC LIMIT 1),
+                           0)
+            FROM (SELECT s.network_id,
+                         sum(solar_grid_cumulative_energy(a.age + 1) - solar_grid_cumulative_energy(a.age)) AS energy_kwh
+                  FROM solar_grid s
+                           CROSS JOIN LATERAL (SELECT CAST(s.age AS BIGINT) + (CAST(? AS DATE) - CAST(s.created_at AS DATE)) AS age) a
+                  WHERE CAST(s.created_at AS DATE) <= CAST(? AS DATE)
+                  GROUP BY s.network_id) d
+            ON CONFLICT (network_id, production_date) DO NOTHING
+            """;
+
+    static final String COMPACT = """
+            WITH compacted AS (
+                DELETE FROM production_ledger WHERE production_date < ?
+                RETURNING network_id, production_date, energy_kwh, cumulative_kwh
+            )
+            INSERT INTO production_ledger_monthly (network_id, production_month, energy_kwh, cumulative_kwh)
+            SELECT network_id, CAST(date_trunc('month', production_date) AS DATE), sum(energy_kwh), max(cumulative_kwh)
+            FROM compacted
+            GROUP BY network_id, date_trunc('month', production_date)
+            ON CONFLICT (network_id, production_month) DO UPDATE
+                SET energy_kwh     = production_ledger_monthly.energy_kwh + excluded.energy_kwh,
+                    cumulative_kwh = greatest(production_ledger_monthly.cumulative_kwh, excluded.cumulative_kwh)
+            """;
+
+    static final String DELETE_EXPIRED = "DELETE FROM production_ledger_monthly WHERE production_month < ?";
+
+    /**
+     * Latest row of each network of the user, read backwards on the primary keys. The monthly row only counts for
+     * the networks without any daily row left.
+     */
+    static final String PRODUCED_SO_FAR = """
+            SELECT max(p.production_date), COALESCE(sum(p.cumulative_kwh), 0)
+            FROM network n
+                     CROSS JOIN LATERAL (
+                SELECT latest.production_date, latest.cumulative_kwh
+                FROM ((SELECT l.production_date, l.cumulative_kwh FROM production_ledger l
+                       WHERE l.network_id = n.id
+                       ORDER BY l.production_date DESC LIMIT 1)
+                      UNION ALL
+                      (SELECT CAST(m.production_month + INTERVAL '1 month' - INTERVAL '1 day' AS DATE), m.cumulative_kwh
+                       FROM production_ledger_monthly m
+                       WHERE m.network_id = n.id
+                       ORDER BY m.production_month DESC LIMIT 1)) latest
+                ORDER BY latest.production_date DESC LIMIT 1) p
+            WHERE n.user_id = ?
+            """;
+
+    static final String DAILY_PRODUCTION = """
+            SELECT l.production_date, sum(l.energy_kwh)
+            FROM production_ledger l
+                     JOIN network n ON n.id = l.network_id
+            WHERE n.user_id = ? AND l.production_date BETWEEN ? AND ?
+            GROUP BY l.production_date
+            ORDER BY l.production_date
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    @Value("${app.simulation.ledger.maxCatchUpDays:31}")
+    private int maxCatchUpDays;
+
+    @Value("${app.simulation.ledger.compactAfterDays:90}")
+    private int compactAfterDays;
+
+    @Value("${app.simulation.ledger.retentionDays:1830}")
+    private int retentionDays;
+
+    /**
+     * Stores the days which are over and not in the ledger yet, up to maxCatchUpDays per run. Once the ledger is
+     * up to date, the old daily rows are compacted and the expired monthly rows deleted.
+     */
+    @Scheduled(fixedDelayString = "${app.simulation.ledger.materializeIntervalMs:3600000}",
+            initialDelayString = "${app.simulation.ledger.materializeIntervalMs:3600000}")
+    @Transactional
+    public void materialize() {
+        if ( !Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class, LEDGER_LOCK_KEY)) ) {
+            log.debug("The production ledger is being materialized by another node");
+            return;
+        }
+
+        final LocalDate today = LocalDate.now(clock);
+        final LocalDate lastDay = today.minusDays(1);
+        final LocalDate firstDay = nextDayToMaterialize(today);
+        if ( firstDay == null )
+            return;
+
+        final LocalDate catchUpDay = firstDay.plusDays(maxCatchUpDays - 1L);
+        final LocalDate untilDay = catchUpDay.isBefore(lastDay) ? catchUpDay : lastDay;
+        for (LocalDate day = firstDay; !day.isAfter(untilDay); day = day.plusDays(1)) {
+            final int networks = jdbcTemplate.update(MATERIALIZE_DAY, day, day, day, day);
+            log.debug("Materialized the production of {} networks on {}", networks, day);
+        }
+
+        // the rows of a late ledger are kept until it catches up, since its next day is found from them
+        if ( untilDay.isBefore(lastDay) ) {
+            log.info("The production ledger is materialized until {}, the next run continues from there", untilDay);
+            return;
+        }
+
+        final int compacted = jdbcTemplate.update(COMPACT, today.minusDays(compactAfterDays).withDayOfMonth(1));
+        final int expired = jdbcTemplate.update(DELETE_EXPIRED, today.minusDays(retentionDays).withDayOfMonth(1));
+        log.debug("Compacted {} and deleted {} rows of the production ledger", compacted, expired);
+    }
+
+    /**
+     * Finds the first day missing from the ledger, looking first at the recent days only, which the BRIN index on
+     * production_date narrows down to the last blocks of the table
+     *
+     * @param today
+     * @return The first day to materialize, or null in case there are no SolarGrids
+     */
+    private LocalDate nextDayToMaterialize(LocalDate today) {
+        LocalDate last = jdbcTemplate.queryForObject(LAST_DAY_SINCE, LocalDate.class, today.minusDays(maxCatchUpDays));
+        if ( last == null )
+            last = jdbcTemplate.queryForObject(LAST_DAY, LocalDate.class);
+        if ( last != null )
+            return last.plusDays(1);
+
+        return jdbcTemplate.queryForObject(FIRST_PRODUCTION_DAY, LocalDate.class);
+    }
+
+    /**
+     * Fetches the energy produced by all the networks of the user until the last materialized day
+     *
+     * @param userId
+     * @return ProducedOutputResponse with the last day of the ledger, null in case it has no rows for the user
+     */
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public ProducedOutputResponse producedSoFar(long userId) {
+        return jdbcTemplate.queryForObject(PRODUCED_SO_FAR, (rs, rowNum) ->
+                new ProducedOutputResponse(rs.getObject(1, LocalDate.class), rs.getDouble(2)), userId);
+    }
+
+    /**
+     * Fetches the energy produced by all the networks of the user on each day of the given range still kept in the
+     * daily rows of the ledger
+     *
+     * @param userId
+     * @param from      The first day of the range
+     * @param to        The last day of the range (inclusive)
+     * @return List of DailyProductionResponse, in date order
+     */
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public List<DailyProductionResponse> dailyProduction(long userId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(DAILY_PRODUCTION, (rs, rowNum) ->
+                new DailyProductionResponse(rs.getObject(1, LocalDate.class), rs.getDouble(2)), userId, from, to);
+    }
+}
@@ -0,0 +1,135 @@
+package com.fastned.solarcharging.service.simulation;
+
+import com.fastned.solarcharging.common.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the results of the simulations, keyed by user, endpoint, days and fleet version
+ *
+ * Every write on the SolarGrids of a user bumps the fleet version of the FleetSnapshotStore, so the results of the
+ * previous version are never served again and are evicted by the size bound. The fleet version is also the ETag
+ * of the results, prefixed by an epoch of the process, since the versions start again at every restart.
+ * Concurrent misses of the same result are coalesced, so a burst of identical requests runs a single simulation.
+ * Its hit and miss statistics are published as the "cache.*" metrics, with the tag cache=simulationResults.
+ */
+@Component
+@RequiredArgsConstructor
+public class SimulationResultCache {
+
+    public static final String CACHE_NAME = "simulationResults";
+
+    /**
+     * Simulation endpoints whose results are cached
+     */
+    public enum Endpoint {
+        OUTPUT,
+        DATABASE_OUTPUT,
+        NETWORK
+    }
+
+    private record Key(long userId, Endpoint endpoint, int days, long version) {
+    }
+
+    private final FleetSnapshotStore fleetSnapshotStore;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Maximum weight of the cached results, where each result weighs the amount of its elements (at least 1)
+     */
+    @Value("${app.simulation.resultCache.maxWeight:1000000}")
+    private long maxWeight;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private Cache<Key, Object> cache;
+    private SingleFlight<Key, Object> singleFlight;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, Object result) -> result instanceof Collection<?> collection ? Math.max(collection.size(), 1) : 1)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        singleFlight = new SingleFlight<>(CACHE_NAME, meterRegistry);
+    }
+
+    /**
+     * Fetches the current fleet version of the given user, without any database access
+     *
+     * @param userId
+     * @return version
+     */
+    public long version(long userId) {
+        return fleetSnapshotStore.version(userId);
+    }
+
+    /**
+     * Creates the strong ETag of the results of the given user and fleet version
+     *
+     * @param userId
+     * @param version
+     * @return ETag, quoted
+     */
+    public String etag(long userId, long version) {
+        return "\"" + epoch + "-" + userId + "-" + version + "\"";
+    }
+
+    /**
+     * Fetches the result of a simulation, computing it in case it is not cached. Concurrent requests of a result
+     * which is not cached share the same computation. The result must not be modified after it is returned, since
+     * it is shared by the following requests.
+     *
+     * @param userId
+     * @param endpoint
+     * @param days
+     * @param version       The fleet version read before computing the result
+     * @param simulation    Computes the result, in case it is not cached
+     * @return the result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(long userId, Endpoint endpoint, int days, long version, Supplier<T> simulation) {
+        final Key key = new Key(userId, endpoint, days, version);
+        final Object cached = cache.getIfPresent(key);
+        if ( cached != null )
+            return (T) cached;
+
+        // the simulation runs out of the cache, which would block the other keys of its hash bin meanwhile
+        return (T) singleFlight.execute(key, () -> {
+            final Object result = simulation.get();
+            cache.put(key, result);
+            return result;
+        });
+    }
+
+    /**
+     * Checks if an If-None-Match header matches the given ETag. Its entity tags are compared with the weak
+     * comparison, as required for If-None-Match.
+     *
+     * @param ifNoneMatch   The value of the If-None-Match header, or null
+     * @param etag
+     * @return true in case the client already has the representation of the given ETag
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if ( ifNoneMatch == null )
+            return false;
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            final String tag = candidate.trim();
+            if ( tag.equals("*") || tag.equals(etag) || (tag.startsWith("W/") && tag.substring(2).equals(etag)) )
+                return true;
+        }
+        return false;
+    }
+}
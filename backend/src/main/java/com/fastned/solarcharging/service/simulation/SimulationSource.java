@@ -0,0 +1,33 @@
+package com.fastned.solarcharging.service.simulation;
+
+import java.util.Locale;
+
+/**
+ * Where a simulation is computed, selected per request
+ */
+public enum SimulationSource {
+
+    /**
+     * In the JVM, over the FleetSnapshot of the user
+     */
+    MEMORY,
+
+    /**
+     * Inside PostgreSQL, by the DatabaseSimulationService
+     */
+    DATABASE;
+
+    /**
+     * Parses the given request parameter, case-insensitively
+     *
+     * @param value
+     * @return SimulationSource, or null in case the value is unknown
+     */
+    public static SimulationSource parse(String value) {
+        for (final SimulationSource source : values()) {
+            if ( source.name().equals(value.toUpperCase(Locale.ROOT)) )
+                return source;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.fastned.solarcharging.service.simulation;
+
+import static com.fastned.solarcharging.service.util.SolarGridUtils.*;
+
+/**
+ * Simulation engine used to calculate the energy produced by SolarGrids over a period of time
+ *
+ * Each SolarGrid produces energy during the 1000 hours of "full sun" of a year, which gives a daily production of
+ * (power output in kW) * 1000 / 365 kWh. The power output only starts after 60 days of placement, loses 0,5% for
+ * each full year of production and drops to zero once the SolarGrid breaks down after 25 years.
+ *
+ * Since the power output is constant during a whole year of production, the energy produced until a given age is
+ * obtained in constant time by summing the yearly blocks analytically, instead of iterating day by day. The
+ * simulations read the same values from the lifetime tables precomputed by SolarGridUtils.
+ */
+public final class SolarSimulationEngine {
+
+    private SolarSimulationEngine() {
+    }
+
+    /**
+     * Calculates the energy produced by a single SolarGrid from the day of placement (age 0) until the given age
+     *
+     * The day corresponding to the given age itself is not included, so the energy produced during the days
+     * [a, b) is cumulativeEnergy(b) - cumulativeEnergy(a).
+     *
+     * @param age   The age of the SolarGrid in days
+     * @return The amount of energy produced, in kWh
+     */
+    public static double cumulativeEnergy(long age) {
+        // number of elapsed days since the production start, counting the first (non-producing) day of production
+        final long days = Math.min(Math.max(age, 0), LIFETIME_IN_DAYS) - DAYS_POWER_PRODUCTION_ON_HOLD;
+        if ( days <= 1 )
+            return 0;
+
+        final long years = days / DAYS_IN_A_YEAR;
+        final long remainingDays = days % DAYS_IN_A_YEAR;
+
+        // sum of the degradation factors of all the elapsed days, including the day the production starts (factor 1)
+        final double factors = DAYS_IN_A_YEAR * (years - YEARLY_DEGRADATION * years * (years - 1) / 2)
+                + remainingDays * (1 - YEARLY_DEGRADATION * years);
+
+        return (factors - 1) * OPTIMAL_POWER_OUTPUT_KW * FULL_SUN_HOURS_PER_DAY;
+    }
+
+    /**
+     * Calculates the energy produced by a single SolarGrid during the next days
+     *
+     * @param age   The current age of the SolarGrid in days
+     * @param days  The amount of days of the simulation
+     * @return The amount of energy produced, in kWh
+     */
+    public static double energyOverDays(int age, int days) {
+        return energyBetween(age, (int) Math.min((long) age + days, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Calculates the total energy produced by a list of SolarGrids during the next days
+     *
+     * @param ages  The current age, in days, of each SolarGrid
+     * @param days  The amount of days of the simulation
+     * @return The total amount of energy produced, in kWh
+     */
+    public static double totalEnergyOverDays(int[] ages, int days) {
+        double total = 0;
+        for (final int age : ages) {
+            total += energyOverDays(age, days);
+        }
+        return total;
+    }
+
+    /**
+     * Calculates the total energy produced by a fleet of SolarGrids grouped by age during the next days
+     *
+     * @param histogram The amount of SolarGrids for each distinct age
+     * @param days      The amount of days of the simulation
+     * @return The total amount of energy produced, in kWh
+     */
+    public static double totalEnergyOverDays(AgeHistogram histogram, int days) {
+        final int[] ages = histogram.ages();
+        final long[] counts = histogram.counts();
+
+        double total = 0;
+        for (int i = 0; i < ages.length; i++) {
+            total += counts[i] * energyOverDays(ages[i], days);
+        }
+        return total;
+    }
+}
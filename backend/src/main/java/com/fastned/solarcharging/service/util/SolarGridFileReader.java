@@ -0,0 +1,94 @@
+package com.fastned.solarcharging.service.util;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fastned.solarcharging.dto.request.SolarGridRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the SolarGrids of a network file one at a time, straight from the JSON token stream
+ *
+ * The file must contain an array of objects with the (case-insensitive) fields "name" and "age", e.g.
+ * [{"name": "Amsterdam", "age": 854}, ...]. Unknown fields and elements which are not objects are ignored. Only
+ * the SolarGrid being read is kept in memory, so the heap used does not depend on the size of the file.
+ */
+public class SolarGridFileReader implements Iterator<SolarGridRequest>, Closeable {
+
+    private final JsonParser parser;
+    private SolarGridRequest next;
+    private boolean started;
+    private boolean finished;
+
+    public SolarGridFileReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if ( next == null && !finished ) {
+            try {
+                next = readNext();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public SolarGridRequest next() {
+        if ( !hasNext() )
+            throw new NoSuchElementException();
+
+        final SolarGridRequest solarGrid = next;
+        next = null;
+        return solarGrid;
+    }
+
+    private SolarGridRequest readNext() throws IOException {
+        if ( !started ) {
+            if ( parser.nextToken() != JsonToken.START_ARRAY )
+                throw new JsonParseException(parser, "Expected an array of SolarGrids");
+            started = true;
+        }
+
+        JsonToken token;
+        while ( (token = parser.nextToken()) != null && token != JsonToken.END_ARRAY ) {
+            if ( token == JsonToken.START_OBJECT )
+                return readSolarGrid();
+
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    private SolarGridRequest readSolarGrid() throws IOException {
+        final SolarGridRequest solarGrid = new SolarGridRequest();
+
+        while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+
+            if ( field.equalsIgnoreCase("name") ) {
+                solarGrid.setName(parser.getValueAsString());
+            } else if ( field.equalsIgnoreCase("age") ) {
+                solarGrid.setAge(parser.getIntValue());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return solarGrid;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
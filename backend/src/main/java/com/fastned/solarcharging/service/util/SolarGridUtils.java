@@ -6,18 +6,51 @@ import com.fastned.solarcharging.dto.response.CommandResponse;
 import com.fastned.solarcharging.dto.response.NetworkCreateResponse;
 import com.fastned.solarcharging.dto.response.SolarGridResponse;
 import com.fastned.solarcharging.dto.response.UserResponse;
+import com.fastned.solarcharging.exception.ElementAlreadyExistsException;
 import com.fastned.solarcharging.service.NetworkService;
 import com.fastned.solarcharging.service.SolarGridService;
+import com.fastned.solarcharging.service.ingestion.IngestionProgress;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 @Slf4j(topic = "SolarGridUtils")
 public class SolarGridUtils {
 
     public static final int DAYS_IN_A_YEAR = 365;
     public static final int DAYS_POWER_PRODUCTION_ON_HOLD = 60;
+    public static final int INGESTION_CHUNK_SIZE = 500;
+    /**
+     * Amount of inserts sent in a single JDBC batch, it must match hibernate.jdbc.batch_size
+     */
+    public static final int PERSISTENCE_BATCH_SIZE = 50;
+    public static final double OPTIMAL_POWER_OUTPUT_KW = 20;
+    public static final double YEARLY_DEGRADATION = 0.005;
+    public static final int FULL_SUN_HOURS_IN_A_YEAR = 1000;
+    public static final int LIFETIME_IN_YEARS = 25;
+    public static final int LIFETIME_IN_DAYS = LIFETIME_IN_YEARS * DAYS_IN_A_YEAR;
+    public static final double FULL_SUN_HOURS_PER_DAY = (double) FULL_SUN_HOURS_IN_A_YEAR / DAYS_IN_A_YEAR;
+
+    /**
+     * Power output (kW) of a SolarGrid for each age in days, during its whole lifetime. The last position
+     * represents a SolarGrid which is already broken down.
+     */
+    private static final double[] POWER_OUTPUT_BY_AGE = new double[LIFETIME_IN_DAYS + 1];
+
+    /**
+     * Energy (kWh) produced by a SolarGrid from the day of placement until each age in days (prefix sums of the
+     * daily energy), so the energy produced between any two ages can be obtained with a single subtraction
+     */
+    private static final double[] ENERGY_BY_AGE = new double[LIFETIME_IN_DAYS + 1];
+
+    static {
+        for (int age = 0; age < LIFETIME_IN_DAYS; age++) {
+            POWER_OUTPUT_BY_AGE[age] = calculatePowerOutput(age);
+            ENERGY_BY_AGE[age + 1] = ENERGY_BY_AGE[age] + POWER_OUTPUT_BY_AGE[age] * FULL_SUN_HOURS_PER_DAY;
+        }
+    }
 
     /**
      * Calculate the power output generated for a given SolarGrid
@@ -29,84 +62,93 @@ public class SolarGridUtils {
      */
     public static double calculatePowerOutput(int days) {
         if ( days  > DAYS_POWER_PRODUCTION_ON_HOLD )
-            return 20*(1-( ( days - DAYS_POWER_PRODUCTION_ON_HOLD)/ DAYS_IN_A_YEAR *0.005));
+            return OPTIMAL_POWER_OUTPUT_KW*(1-( ( days - DAYS_POWER_PRODUCTION_ON_HOLD)/ DAYS_IN_A_YEAR *YEARLY_DEGRADATION));
         else
             return 0;
     }
 
-    public static NetworkCreateResponse processIncomingNetworkFile(NetworkService networkService, SolarGridService solarGridService, List<Object> list, UserResponse userResponse, Integer elapsedTimeDays) {
-        NetworkCreateResponse response = new NetworkCreateResponse();
-
-        NetworkRequest network = new NetworkRequest();
-        network.setName(userResponse.getUsername());
-        network.setIdUser(userResponse.getId());
-        CommandResponse net = networkService.create(network);
-
-        for (final Object o: list) {
-            if (o instanceof Map) {
-                Map<String, Object> map = (Map<String, Object>) o;
-                log.info("Items found: " + map.size());
-                int i = 0;
-
-                SolarGridRequest solRequest = new SolarGridRequest();
-
-                for (Map.Entry<String,Object> entry: map.entrySet()) {
-                    log.info(entry.getKey() + " = " + entry.getValue());
-
-                    if ( entry.getKey().equalsIgnoreCase("name") ) {
-                        solRequest.setName((String) entry.getValue());
-                    } else if ( entry.getKey().equalsIgnoreCase("age")) {
-                        int value = -1;
-                        value = (Integer)entry.getValue();
-                        solRequest.setAge(value);
-                    }
-
-                    i++;
-                }
-
-                solRequest.setIdNetwork(net.id());
-
-                SolarGridResponse solarGridResponse = solarGridService.create(solRequest);
-
-                response.getResponseList().add( solarGridResponse );
-
-                // sum up all the local SolarGrid power output
-                if ( elapsedTimeDays != null && elapsedTimeDays > 0 )
-                    response.setPowerOutput( response.getPowerOutput() + SolarGridUtils.calculatePowerOutput(solarGridResponse.getAge()) );
-                else
-                    response.setPowerOutput( response.getPowerOutput() + solarGridResponse.getPowerOutput() );
-            }
-        }
+    /**
+     * Fetches the power output of a SolarGrid with the given age from the precomputed lifetime table
+     *
+     * @param age   The age of the SolarGrid in days
+     * @return The power output in kW, or 0 in case the SolarGrid is on hold or already broken down
+     */
+    public static double powerOutputAt(int age) {
+        return POWER_OUTPUT_BY_AGE[lifetimeIndex(age)];
+    }
 
-        return response;
+    /**
+     * Fetches the energy produced by a SolarGrid between two ages from the precomputed lifetime table
+     *
+     * @param fromAge   The initial age in days (inclusive)
+     * @param toAge     The final age in days (exclusive)
+     * @return The amount of energy produced, in kWh
+     */
+    public static double energyBetween(int fromAge, int toAge) {
+        return ENERGY_BY_AGE[lifetimeIndex(toAge)] - ENERGY_BY_AGE[lifetimeIndex(fromAge)];
     }
 
+    private static int lifetimeIndex(int age) {
+        return Math.min(Math.max(age, 0), LIFETIME_IN_DAYS);
+    }
 
-    public static NetworkCreateResponse processIncomingNetwork(NetworkService networkService, SolarGridService solarGridService, List<SolarGridRequest> list, UserResponse userResponse, Integer elapsedTimeDays) {
+    /**
+     * Creates a new Network for the given user with all the incoming SolarGrids
+     *
+     * The SolarGrids are consumed one at a time from the given iterator (e.g. a SolarGridFileReader streaming a
+     * file) and persisted in chunks of INGESTION_CHUNK_SIZE, so the whole network is never kept in memory.
+     *
+     * @param networkService
+     * @param solarGridService
+     * @param solarGrids        The incoming SolarGrids
+     * @param userResponse      The owner of the Network
+     * @param elapsedTimeDays
+     * @param progress          Notified after each persisted chunk
+     * @return NetworkCreateResponse with the total power output of the Network
+     */
+    public static NetworkCreateResponse processIncomingNetwork(NetworkService networkService, SolarGridService solarGridService, Iterator<SolarGridRequest> solarGrids, UserResponse userResponse, Integer elapsedTimeDays, IngestionProgress progress) {
         NetworkCreateResponse response = new NetworkCreateResponse();
         NetworkRequest network = new NetworkRequest();
         network.setName(userResponse.getUsername());
         network.setIdUser(userResponse.getId());
         CommandResponse net = networkService.create(network);
+        response.setId(net.id());
+        response.setName(network.getName());
+
+        final List<SolarGridRequest> chunk = new ArrayList<>(INGESTION_CHUNK_SIZE);
+        while ( solarGrids.hasNext() ) {
+            final SolarGridRequest solRequest = solarGrids.next();
+            solRequest.setIdNetwork(net.id());
+            chunk.add(solRequest);
+
+            if ( chunk.size() < INGESTION_CHUNK_SIZE && solarGrids.hasNext() )
+                continue;
+
+            List<SolarGridResponse> created;
+            try {
+                created = solarGridService.createAll(chunk);
+            } catch (ElementAlreadyExistsException e) {
+                // a name was taken concurrently, the chunk is retried querying all its names, so it is skipped
+                log.debug("Retrying a chunk of network {} with a name taken concurrently", net.id());
+                created = solarGridService.createAll(chunk, false);
+            }
+            response.setRejectedSolarGrids( response.getRejectedSolarGrids() + chunk.size() - created.size() );
+            progress.chunkPersisted(created.size(), chunk.size() - created.size());
 
-        for (final SolarGridRequest solRequest: list) {
-                solRequest.setIdNetwork(net.id());
-
-                SolarGridResponse solarGridResponse = solarGridService.create(solRequest);
-
-                response.getResponseList().add( solarGridResponse );
+            for (final SolarGridResponse solarGridResponse : created) {
+                response.addSolarGrid( solarGridResponse );
 
                 // sum up all the local SolarGrid power output
                 if ( elapsedTimeDays != null && elapsedTimeDays > 0 )
-                    response.setPowerOutput( response.getPowerOutput() + SolarGridUtils.calculatePowerOutput(solarGridResponse.getAge()) );
+                    response.setPowerOutput( response.getPowerOutput() + SolarGridUtils.powerOutputAt(solarGridResponse.getAge()) );
                 else
                     response.setPowerOutput( response.getPowerOutput() + solarGridResponse.getPowerOutput() );
             }
 
+            log.debug("Persisted {} SolarGrids of network {}", response.getTotalSolarGrids(), net.id());
+            chunk.clear();
+        }
 
         return response;
     }
-
-
-
 }
@@ -0,0 +1,19 @@
+-- Energy (kWh) produced by a SolarGrid from the day of placement until the given age (exclusive), the same closed
+-- form as SolarSimulationEngine.cumulativeEnergy: no production during the first 60 days, 20 kW losing 0.5% per full
+-- year of production, 1000 hours of full sun per year, and no production after the lifetime of 25 years.
+-- The constants must be kept in sync with SolarGridUtils.
+CREATE OR REPLACE FUNCTION solar_grid_cumulative_energy(age BIGINT) RETURNS DOUBLE PRECISION
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$
+SELECT CASE
+           WHEN days <= 1 THEN 0
+           ELSE (365 * (years - 0.005::float8 * years * (years - 1) / 2)
+                     + (days % 365) * (1 - 0.005::float8 * years) - 1) * 20 * (1000 / 365.0::float8)
+           END
+FROM (SELECT days, days / 365 AS years
+      FROM (SELECT least(greatest(age, 0), 25 * 365) - 60 AS days) elapsed) production
+$$;
+
+-- the aggregations of a user fleet read the ages of its SolarGrids from the index only
+CREATE INDEX idx_network_user_id ON network (user_id);
+CREATE INDEX idx_solar_grid_network_id_age ON solar_grid (network_id, age);
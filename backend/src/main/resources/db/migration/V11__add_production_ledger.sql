@@ -0,0 +1,30 @@
+-- Energy produced by each network per day, materialized once a day is over by ProductionLedgerService. Each row
+-- also carries the energy produced since the first materialized day, so the output so far of a network is the
+-- cumulative_kwh of its latest row. Rows are appended in date order, which keeps the BRIN index small and selective.
+CREATE TABLE production_ledger
+(
+    network_id      BIGINT           NOT NULL,
+    production_date DATE             NOT NULL,
+    energy_kwh      DOUBLE PRECISION NOT NULL,
+    cumulative_kwh  DOUBLE PRECISION NOT NULL,
+    CONSTRAINT pk_production_ledger PRIMARY KEY (network_id, production_date)
+);
+
+ALTER TABLE production_ledger
+    ADD CONSTRAINT FK_TO_NETWORK_FROM_PRODUCTION_LEDGER FOREIGN KEY (network_id) REFERENCES network (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_production_ledger_production_date ON production_ledger USING BRIN (production_date);
+
+-- Daily rows older than the compaction age are rolled up into a row per network and month, which are deleted
+-- after the retention period
+CREATE TABLE production_ledger_monthly
+(
+    network_id       BIGINT           NOT NULL,
+    production_month DATE             NOT NULL,
+    energy_kwh       DOUBLE PRECISION NOT NULL,
+    cumulative_kwh   DOUBLE PRECISION NOT NULL,
+    CONSTRAINT pk_production_ledger_monthly PRIMARY KEY (network_id, production_month)
+);
+
+ALTER TABLE production_ledger_monthly
+    ADD CONSTRAINT FK_TO_NETWORK_FROM_PRODUCTION_LEDGER_MONTHLY FOREIGN KEY (network_id) REFERENCES network (id) ON DELETE CASCADE;
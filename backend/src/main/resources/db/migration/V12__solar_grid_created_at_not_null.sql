@@ -0,0 +1,5 @@
+-- The SolarGrids created through the API had no created_at, so the production ledger skipped them. Their day of
+-- creation is unknown, so they start producing in the ledger from the day of this migration.
+UPDATE solar_grid SET created_at = current_timestamp WHERE created_at IS NULL;
+
+ALTER TABLE solar_grid ALTER COLUMN created_at SET NOT NULL;
@@ -0,0 +1,2 @@
+-- SolarGrid ids are allocated in blocks of 50 (pooled-lo), so batched inserts do not need a sequence call per row
+ALTER SEQUENCE sequence_solar_grid INCREMENT BY 50;
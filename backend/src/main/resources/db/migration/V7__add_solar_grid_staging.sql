@@ -0,0 +1,14 @@
+-- Staging area of the bulk loader: the rows of a file are copied here (COPY) and merged into solar_grid with a
+-- single statement. The table is unlogged, since its rows only live during a load.
+CREATE UNLOGGED TABLE solar_grid_staging
+(
+    load_id         BIGINT       NOT NULL,
+    seq             BIGINT       NOT NULL,
+    name            VARCHAR(500) NOT NULL,
+    age             INT          NOT NULL,
+    power_output    REAL         NOT NULL
+);
+
+CREATE INDEX idx_solar_grid_staging_load_id ON solar_grid_staging (load_id);
+
+CREATE SEQUENCE IF NOT EXISTS sequence_solar_grid_load START WITH 1 INCREMENT BY 1;
@@ -0,0 +1,11 @@
+-- Revoked JWTs: a single token by its jti, or all the tokens of a user ('user:' || id) issued until revoked_at.
+-- Rows are deleted once expires_at is past, since the tokens they cover are expired by then.
+CREATE TABLE revoked_token
+(
+    token_key       VARCHAR(64)  NOT NULL,
+    revoked_at      timestamp    NOT NULL,
+    expires_at      timestamp    NOT NULL,
+    CONSTRAINT pk_revoked_token PRIMARY KEY (token_key)
+);
+
+CREATE INDEX idx_revoked_token_expires_at ON revoked_token (expires_at);
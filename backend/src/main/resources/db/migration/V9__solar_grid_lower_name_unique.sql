@@ -0,0 +1,7 @@
+-- SolarGrid names are unique case-insensitively. The duplicates which could have been inserted by concurrent
+-- requests, before this index existed, keep their names with the id appended, except for the oldest one.
+UPDATE solar_grid g
+SET name = left(g.name, 480) || ' (' || g.id || ')'
+WHERE EXISTS (SELECT 1 FROM solar_grid o WHERE lower(o.name) = lower(g.name) AND o.id < g.id);
+
+CREATE UNIQUE INDEX uc_solar_grid_lower_name ON solar_grid (lower(name));
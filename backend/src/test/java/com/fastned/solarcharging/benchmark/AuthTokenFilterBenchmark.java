@@ -0,0 +1,110 @@
+package com.fastned.solarcharging.benchmark;
+
+import com.fastned.solarcharging.repository.RevokedTokenRepository;
+import com.fastned.solarcharging.security.AuthTokenFilter;
+import com.fastned.solarcharging.security.JwtUtils;
+import com.fastned.solarcharging.security.UserDetailsImpl;
+import com.fastned.solarcharging.service.TokenRevocationService;
+import com.fastned.solarcharging.service.cache.CacheInvalidationBus;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH Benchmark of the AuthTokenFilter (including the revocation check), with a token which is already in the verified-token cache and with the
+ * cache disabled (a full parse and HMAC-SHA512 verification per request). The previous flow, which parsed and
+ * verified the token twice with a new parser each time, is measured as a baseline.
+ *
+ * Run it from the test classpath (see README.API.md), e.g.:
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main AuthTokenFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+
+    private static final String SECRET = "c29sYXItY2hhcmdpbmctYmVuY2htYXJrLXNlY3JldC1rZXktdXNlZC1mb3ItaHM1MTI=";
+
+    private AuthTokenFilter cachedFilter;
+    private AuthTokenFilter uncachedFilter;
+    private String token;
+
+    @Setup
+    public void setup() {
+        final JwtUtils cachedJwtUtils = jwtUtils(10_000);
+        cachedFilter = filter(cachedJwtUtils);
+        uncachedFilter = filter(jwtUtils(0));
+
+        final UserDetailsImpl user = new UserDetailsImpl(2L, "jake", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = cachedJwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static JwtUtils jwtUtils(long cacheSize) {
+        final JwtUtils jwtUtils = new JwtUtils(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCacheMaxSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        return jwtUtils;
+    }
+
+    private static AuthTokenFilter filter(JwtUtils jwtUtils) {
+        final AuthTokenFilter filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", tokenRevocationService());
+        return filter;
+    }
+
+    /**
+     * TokenRevocationService without revocations, whose Bloom filter answers every check without the database
+     */
+    private static TokenRevocationService tokenRevocationService() {
+        final RevokedTokenRepository repository = Mockito.mock(RevokedTokenRepository.class);
+        final TokenRevocationService service = new TokenRevocationService(repository, Mockito.mock(CacheInvalidationBus.class), Clock.systemUTC());
+        ReflectionTestUtils.setField(service, "expectedTokens", 10_000L);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    private Object doFilter(AuthTokenFilter filter) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/solar-simulator/output/365");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        final Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    @Benchmark
+    public Object filterCachedToken() throws Exception {
+        return doFilter(cachedFilter);
+    }
+
+    @Benchmark
+    public Object filterUncachedToken() throws Exception {
+        return doFilter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object doubleParseBaseline() {
+        Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+    }
+}
@@ -0,0 +1,86 @@
+package com.fastned.solarcharging.benchmark;
+
+import com.fastned.solarcharging.service.util.SolarGridUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH Benchmark comparing the SolarGridUtils power output formula with the precomputed lifetime tables
+ *
+ * Run it from the test classpath (see README.API.md), e.g.:
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main SolarGridUtilsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolarGridUtilsBenchmark {
+
+    @Param({"10000"})
+    private int solarGrids;
+
+    @Param({"365"})
+    private int days;
+
+    private int[] ages;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        ages = new int[solarGrids];
+        for (int i = 0; i < solarGrids; i++) {
+            ages[i] = random.nextInt(SolarGridUtils.LIFETIME_IN_DAYS);
+        }
+    }
+
+    @Benchmark
+    public double powerOutputFormula() {
+        double total = 0;
+        for (final int age : ages) {
+            total += SolarGridUtils.calculatePowerOutput(age);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double powerOutputTable() {
+        double total = 0;
+        for (final int age : ages) {
+            total += SolarGridUtils.powerOutputAt(age);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double energyFormula() {
+        double total = 0;
+        for (final int age : ages) {
+            for (int d = age; d < age + days && d < SolarGridUtils.LIFETIME_IN_DAYS; d++) {
+                total += SolarGridUtils.calculatePowerOutput(d) * SolarGridUtils.FULL_SUN_HOURS_PER_DAY;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double energyTable() {
+        double total = 0;
+        for (final int age : ages) {
+            total += SolarGridUtils.energyBetween(age, age + days);
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SolarGridUtilsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
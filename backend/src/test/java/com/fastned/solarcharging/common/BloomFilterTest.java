@@ -0,0 +1,53 @@
+package com.fastned.solarcharging.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for BloomFilter methods
+ */
+class BloomFilterTest {
+
+    /**
+     * Method under test: {@link BloomFilter#mightContain(String)}
+     */
+    @Test
+    void mightContain_should_returnTrue_when_ValueIsPut() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++)
+            filter.put("token-" + i);
+
+        for (int i = 0; i < 1000; i++)
+            assertTrue(filter.mightContain("token-" + i));
+    }
+
+    /**
+     * Method under test: {@link BloomFilter#mightContain(String)}
+     */
+    @Test
+    void mightContain_should_keepFalsePositiveRate_when_IsFilledAsExpected() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++)
+            filter.put(UUID.randomUUID().toString());
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if ( filter.mightContain(UUID.randomUUID().toString()) )
+                falsePositives++;
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    /**
+     * Method under test: {@link BloomFilter#BloomFilter(long, double)}
+     */
+    @Test
+    void constructor_should_throwIllegalArgumentException_when_RateIsNotValid() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new BloomFilter(10, 1.0);
+        });
+    }
+}
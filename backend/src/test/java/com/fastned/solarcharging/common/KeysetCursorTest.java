@@ -0,0 +1,53 @@
+package com.fastned.solarcharging.common;
+
+import com.fastned.solarcharging.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for KeysetCursor methods
+ */
+class KeysetCursorTest {
+
+    /**
+     * Method under test: {@link KeysetCursor#decode(String)}
+     */
+    @Test
+    void decode_should_returnLastId_when_CursorIsEncoded() {
+        assertEquals(4242L, KeysetCursor.decode(KeysetCursor.encode(4242L)));
+    }
+
+    /**
+     * Method under test: {@link KeysetCursor#decode(String)}
+     */
+    @Test
+    void decode_should_returnZero_when_CursorIsEmpty() {
+        assertEquals(0L, KeysetCursor.decode(""));
+        assertEquals(0L, KeysetCursor.decode(null));
+    }
+
+    /**
+     * Method under test: {@link KeysetCursor#decode(String)}
+     */
+    @Test
+    void decode_should_throwInvalidCursorException_when_CursorIsNotEncoded() {
+        String otherPrefix = Base64.getUrlEncoder().encodeToString("offset:10".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(otherPrefix));
+    }
+
+    /**
+     * Method under test: {@link KeysetCursor#size(int)}
+     */
+    @Test
+    void size_should_limitSize_when_SizeIsOutOfRange() {
+        assertEquals(1, KeysetCursor.size(0));
+        assertEquals(50, KeysetCursor.size(50));
+        assertEquals(KeysetCursor.MAX_SIZE, KeysetCursor.size(KeysetCursor.MAX_SIZE + 1));
+    }
+}
@@ -0,0 +1,90 @@
+package com.fastned.solarcharging.common;
+
+import com.fastned.solarcharging.exception.NoSuchElementFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for SingleFlight methods
+ */
+class SingleFlightTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    private double calls(String result) {
+        return meterRegistry.get(SingleFlight.METRIC_NAME).tag("name", "test").tag("result", result).counter().count();
+    }
+
+    /**
+     * Method under test: {@link SingleFlight#execute(Object, java.util.function.Supplier)}
+     */
+    @Test
+    void execute_should_runOnce_when_CallsAreConcurrent() throws Exception {
+        final int callers = 4;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("user-2", () -> {
+                started.countDown();
+                awaitQuietly(release);
+                return executions.incrementAndGet();
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i < callers; i++)
+                results.add(executor.submit(() -> singleFlight.execute("user-2", executions::incrementAndGet)));
+
+            // the collapsed callers are counted before they wait for the leader
+            while ( calls("collapsed") < callers - 1 )
+                Thread.sleep(10);
+            release.countDown();
+
+            for (Future<Integer> result : results)
+                assertEquals(1, result.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(1, calls("leader"));
+        assertEquals(2, singleFlight.execute("user-2", executions::incrementAndGet));
+    }
+
+    /**
+     * Method under test: {@link SingleFlight#execute(Object, java.util.function.Supplier)}
+     */
+    @Test
+    void execute_should_throwException_of_Computation() {
+        assertThrows(NoSuchElementFoundException.class, () -> {
+            singleFlight.execute("user-2", () -> {
+                throw new NoSuchElementFoundException("not found");
+            });
+        });
+        assertEquals(3, singleFlight.execute("user-2", () -> 3));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.fastned.solarcharging.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Test for ReadReplicaRoutingDataSource methods
+ */
+@ExtendWith(MockitoExtension.class)
+class ReadReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setup() {
+        routingDataSource = new ReadReplicaRoutingDataSource(primary, replica, 1000, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    /**
+     * Determines the route from within a method marked with ReadFromReplica
+     */
+    private Object routeReadFromReplica() throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.proceed()).thenAnswer(call -> routingDataSource.determineCurrentLookupKey());
+        return ReadReplicaRoutingDataSource.readFromReplica(invocation);
+    }
+
+    /**
+     * Makes the queries run on the given DataSource return the result set of the given number of rows
+     */
+    private ResultSet mockResultSet(DataSource dataSource, int rows) throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        lenient().when(connection.createStatement()).thenReturn(statement);
+        lenient().when(connection.prepareStatement(anyString())).thenReturn(statement);
+        lenient().when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        lenient().when(statement.executeQuery()).thenReturn(resultSet);
+        lenient().when(resultSet.getMetaData()).thenReturn(metaData);
+        lenient().when(metaData.getColumnCount()).thenReturn(1);
+        when(resultSet.next()).thenReturn(rows > 0, false);
+        return resultSet;
+    }
+
+    private void mockPrimaryPosition(String position) throws SQLException {
+        when(mockResultSet(primary, 1).getString(1)).thenReturn(position);
+    }
+
+    private double connections(String route) {
+        return meterRegistry.get("datasource.routing.connections").tag("route", route).counter().count();
+    }
+
+    /**
+     * Method under test: {@link ReadReplicaRoutingDataSource#determineCurrentLookupKey()}
+     */
+    @Test
+    void determineCurrentLookupKey_should_routeToPrimary_when_TransactionIsNotReadOnly() {
+        assertEquals(ReadReplicaRoutingDataSource.Route.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        assertEquals(1, connections("primary"));
+    }
+
+    /**
+     * Method under test: {@link ReadReplicaRoutingDataSource#determineCurrentLookupKey()}
+     */
+    @Test
+    void determineCurrentLookupKey_should_routeToReplica_when_TransactionIsReadOnly_and_ReadsFromReplica() throws Throwable {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.recordReplicaLag(200);
+
+        assertEquals(ReadReplicaRoutingDataSource.Route.REPLICA, routeReadFromReplica());
+        assertEquals(1, connections("replica"));
+        assertEquals(200, meterRegistry.get("datasource.replica.lag").gauge().value());
+    }
+
+    /**
+     * Method under test: {@link ReadReplicaRoutingDataSource#determineCurrentLookupKey()}
+     */
+    @Test
+    void determineCurrentLookupKey_should_routeToPrimary_when_ReadOnlyTransactionIsNotMarked() throws Throwable {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.recordReplicaLag(0);
+
+        // such as the read-only transactions of the repositories, or of the security checks
+        assertEquals(ReadReplicaRoutingDataSource.Route.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        assertEquals(1, connections("primary"));
+
+        routeReadFromReplica();
+        assertEquals(ReadReplicaRoutingDataSource.Route.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    /**
+     * Method under test: {@link ReadReplicaRoutingDataSource#determineCurrentLookupKey()}
+     */
+    @Test
+    void determineCurrentLookupKey_should_fallBackToPrimary_when_ReplicaLagIsTooHigh() throws Throwable {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.recordReplicaLag(1001);
+
+        assertEquals(ReadReplicaRoutingDataSource.Route.PRIMARY, routeReadFromReplica());
+        assertEquals(1, connections("fallback"));
+
+        routingDataSource.recordReplicaLag(0);
+
+        assertEquals(ReadReplicaRoutingDataSource.Route.REPLICA, routeReadFromReplica());
+    }
+
+    /**
+     * Method under test: {@link ReadReplicaRoutingDataSource#checkReplicaLag()}
+     */
+    @Test
+    void checkReplicaLag_should_fallBackToPrimary_when_ReplicaCannotBeReached() throws Throwable {
+        mockPrimaryPosition("0/3000060");
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        routingDataSource.checkReplicaLag();
+
+        assertFalse(routingDataSource.isReplicaAvailable());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReadReplicaRoutingDataSource.Route.PRIMARY, routeReadFromReplica());
+    }
+
+    /**
+     * Method under test: {@link ReadReplicaRoutingDataSource#checkReplicaLag()}
+     */
+    @Test
+    void checkReplicaLag_should_routeToReplica_when_ReplicaHasReplayedPrimaryPosition() throws Throwable {
+        mockPrimaryPosition("0/3000060");
+        when(mockResultSet(replica, 1).getLong(1)).thenReturn(0L);
+        routingDataSource.recordReplicaLag(1001);
+
+        routingDataSource.checkReplicaLag();
+
+        assertTrue(routingDataSource.isReplicaAvailable());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReadReplicaRoutingDataSource.Route.REPLICA, routeReadFromReplica());
+    }
+
+    /**
+     * Method under test: {@link ReadReplicaRoutingDataSource#checkReplicaLag()}
+     */
+    @Test
+    void checkReplicaLag_should_fallBackToPrimary_when_WalReceiverIsStopped() throws Throwable {
+        mockPrimaryPosition("0/3000060");
+        // no streaming WAL receiver, although the replica has replayed everything it received
+        mockResultSet(replica, 0);
+
+        routingDataSource.checkReplicaLag();
+
+        assertFalse(routingDataSource.isReplicaAvailable());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReadReplicaRoutingDataSource.Route.PRIMARY, routeReadFromReplica());
+    }
+}
@@ -0,0 +1,93 @@
+package com.fastned.solarcharging.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test of the routing between a primary and a replica, each one in its own PostgreSQL container
+ *
+ * The second container is not a real standby: a marker table, created only on it, tells which one served a query.
+ */
+@SpringBootTest(properties = "app.datasource.replica.jdbc-url=jdbc:tc:postgresql:14.6-alpine:///replica_tests_db")
+@ActiveProfiles("test")
+class ReadReplicaRoutingIntegrationTest {
+
+    private static final String IS_REPLICA = "select to_regclass('replica_marker') is not null";
+
+    @TestConfiguration
+    static class ReplicaProbeConfig {
+
+        @Bean
+        ReplicaProbe replicaProbe(JdbcTemplate jdbcTemplate) {
+            return new ReplicaProbe(jdbcTemplate);
+        }
+    }
+
+    /**
+     * Tells which database serves each kind of transaction
+     */
+    static class ReplicaProbe {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        ReplicaProbe(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @ReadFromReplica
+        @Transactional(readOnly = true)
+        public boolean readFromReplica() {
+            return jdbcTemplate.queryForObject(IS_REPLICA, Boolean.class);
+        }
+
+        @Transactional(readOnly = true)
+        public boolean readOnly() {
+            return jdbcTemplate.queryForObject(IS_REPLICA, Boolean.class);
+        }
+
+        @Transactional
+        public boolean readWrite() {
+            return jdbcTemplate.queryForObject(IS_REPLICA, Boolean.class);
+        }
+    }
+
+    @Autowired
+    private ReplicaProbe replicaProbe;
+
+    @Autowired
+    private ReadReplicaRoutingDataSource readReplicaRoutingDataSource;
+
+    /**
+     * Method under test: {@link ReadReplicaRoutingDataSource#determineCurrentLookupKey()}
+     */
+    @Test
+    void transactions_should_readFromReplica_only_when_MethodIsMarked() {
+        new JdbcTemplate(readReplicaRoutingDataSource.getResolvedDataSources().get(ReadReplicaRoutingDataSource.Route.REPLICA))
+                .execute("create table if not exists replica_marker (id int)");
+        // the replica container does not stream from the primary, so its lag cannot be measured
+        readReplicaRoutingDataSource.recordReplicaLag(0);
+
+        assertTrue(replicaProbe.readFromReplica());
+        assertFalse(replicaProbe.readOnly());
+        assertFalse(replicaProbe.readWrite());
+    }
+
+    /**
+     * Method under test: {@link ReadReplicaRoutingDataSource#checkReplicaLag()}
+     */
+    @Test
+    void checkReplicaLag_should_fallBackToPrimary_when_ReplicaIsNotStreaming() {
+        readReplicaRoutingDataSource.checkReplicaLag();
+
+        assertFalse(readReplicaRoutingDataSource.isReplicaAvailable());
+        readReplicaRoutingDataSource.recordReplicaLag(0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.fastned.solarcharging.controller;
+
+import com.fastned.solarcharging.IntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class NetworkControllerTest extends IntegrationTest {
+
+    private static final String NETWORK_FILE = """
+            [{"name": "sao paulo", "age": 100}, {"name": "Delft", "age": 400}, {"name": "DELFT", "age": 10},
+             {"name": "Utrecht", "age": 30}, {"age": 3}]
+            """;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JsonNode awaitJob(String id) throws Exception {
+        for (int i = 0; i < 500; i++) {
+            String body = mvc.perform(get("/api/v1/jobs/{id}", id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode job = objectMapper.readTree(body).get("data");
+            if ( !job.get("finishedAt").isNull() )
+                return job;
+            Thread.sleep(20);
+        }
+        return fail("The ingestion job did not finish");
+    }
+
+    /**
+     * Method under test: {@link NetworkController#handleSolarGridStateFileUpload(org.springframework.web.multipart.MultipartFile, com.fastned.solarcharging.dto.request.LoadFileRequest, org.springframework.security.core.Authentication)}
+     *
+     * The ingestion runs in background and commits its own transaction, so the test is not transactional and
+     * removes the created network at the end.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @WithMockUser(username = "jake", roles = {"USER"})
+    void handleSolarGridStateFileUpload_should_skipDuplicatedNames_when_ModeIsBulk() throws Exception {
+        String body = mvc.perform(multipart("/api/v1/network/load-file")
+                        .file(new MockMultipartFile("file", "network.json", MediaType.APPLICATION_JSON_VALUE, NETWORK_FILE.getBytes()))
+                        .file(new MockMultipartFile("body", "", MediaType.APPLICATION_JSON_VALUE, "{\"timeElapsedDays\": 0, \"mode\": \"BULK\"}".getBytes())))
+                .andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", containsString("/api/v1/jobs/")))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode job = awaitJob(objectMapper.readTree(body).get("data").get("id").asText());
+        try {
+            assertEquals("COMPLETED", job.get("status").asText());
+            assertEquals(5, job.get("rowsParsed").asLong());
+            assertEquals(2, job.get("rowsPersisted").asLong());
+            assertEquals(3, job.get("rowsRejected").asLong());
+
+            mvc.perform((get("/api/v1/solar-grid/users/{userId}", 2)))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data", hasSize(4)));
+        } finally {
+            mvc.perform(delete("/api/v1/network/{id}", job.get("networkId").asLong()))
+                    .andExpect(status().isNoContent());
+        }
+    }
+}
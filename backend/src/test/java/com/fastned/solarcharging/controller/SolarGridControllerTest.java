@@ -1,15 +1,18 @@
 package com.fastned.solarcharging.controller;
 
 import com.fastned.solarcharging.IntegrationTest;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class SolarGridControllerTest extends IntegrationTest {
@@ -51,6 +54,36 @@ class SolarGridControllerTest extends IntegrationTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data.totalElements").value(2));
     }
 
+    /**
+     * Method under test: {@link SolarGridController#findAll(String, int)}
+     */
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void findAll_should_returnSlicesByCursor_when_CursorIsGiven() throws Exception {
+        MvcResult first = mvc.perform((get("/api/v1/solar-grid").param("cursor", "").param("size", "1")))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.content[0].name").value("Sao Paulo"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.hasNext").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.totalElements").doesNotExist())
+                .andReturn();
+        String nextCursor = JsonPath.read(first.getResponse().getContentAsString(), "$.data.nextCursor");
+
+        mvc.perform((get("/api/v1/solar-grid").param("cursor", nextCursor).param("size", "1")))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.content[0].name").value("Brasilia"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.hasNext").value(false));
+    }
+
+    /**
+     * Method under test: {@link SolarGridController#findAll(String, int)}
+     */
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void findAll_should_returnStatusIsBadRequest_when_CursorIsInvalid() throws Exception {
+        mvc.perform((get("/api/v1/solar-grid").param("cursor", "not a cursor")))
+                .andExpect(status().isBadRequest());
+    }
+
     /**
      * Method under test: {@link SolarGridController#findByUserId(long)}
      */
@@ -63,6 +96,47 @@ class SolarGridControllerTest extends IntegrationTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data[0].name").value("Sao Paulo"));
     }
 
+    /**
+     * Method under test: {@link SolarGridController#streamByUserId(long)}
+     */
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void streamByUserId_should_returnStatusIsOk_when_IsFound() throws Exception {
+        MvcResult result = mvc.perform((get("/api/v1/solar-grid/users/{userId}", 2).param("stream", "true")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Success"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data[0].name").value("Sao Paulo"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.length()").value(2));
+    }
+
+    /**
+     * Method under test: {@link SolarGridController#streamByUserId(long)}
+     */
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void streamByUserId_should_returnStatusIsNotFound_when_IsNotFound() throws Exception {
+        mvc.perform((get("/api/v1/solar-grid/users/{userId}", 999).param("stream", "true")))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Method under test: {@link SolarGridController#findByUserId(long, Pageable)}
+     */
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void findAllByUserId_should_returnPage_when_PageIsRequested() throws Exception {
+        mvc.perform((get("/api/v1/solar-grid/users/{userId}", 2).param("page", "1").param("size", "1")))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.content[0].name").value("Brasilia"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.totalElements").value(2));
+    }
+
     /**
      * Method under test: {@link SolarGridController#findByUserId(long)}
      */
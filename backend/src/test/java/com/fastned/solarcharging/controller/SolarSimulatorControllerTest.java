@@ -1,23 +1,30 @@
 package com.fastned.solarcharging.controller;
 
 import com.fastned.solarcharging.IntegrationTest;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class SolarSimulatorControllerTest extends IntegrationTest {
 
 
     /**
-     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, Authentication)}
+     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, String, String, Authentication)}
      */
     @Test
     @WithMockUser(username = "jake", roles = {"USER"})
@@ -30,7 +37,7 @@ class SolarSimulatorControllerTest extends IntegrationTest {
     }
 
     /**
-     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, Authentication)}
+     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, String, String, Authentication)}
      */
     @Test
     @WithMockUser(username = "jake", roles = {"USER"})
@@ -43,21 +50,21 @@ class SolarSimulatorControllerTest extends IntegrationTest {
     }
 
     /**
-     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, Authentication)}
+     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, String, String, Authentication)}
      */
     @Test
     @WithMockUser(username = "jake", roles = {"USER"})
-    void findAll_SolarSimulator_TotalOutput_Response0_should_returnStatusIsOk() throws Exception {
+    void findAll_SolarSimulator_TotalOutput_should_returnOutputOfProducingSolarGrids_when_LessThan60Days() throws Exception {
         mvc.perform((get("/api/v1/solar-simulator/output/{days}", 58)))
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data.totalOutputInKWh").isNotEmpty())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data.totalOutputInKWh").value(0.0));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.totalOutputInKWh", closeTo(6292.60, 0.01)));
     }
 
 
     /**
-     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, Authentication)}
+     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, String, String, Authentication)}
      */
     @Test
     @WithMockUser(username = "jake", roles = {"USER"})
@@ -66,8 +73,138 @@ class SolarSimulatorControllerTest extends IntegrationTest {
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.data.totalOutputInKWh").isNotEmpty())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.data.totalOutputInKWh").value(40.0));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.data.totalOutputInKWh", closeTo(34686.58, 0.01)));
     }
 
+    /**
+     * Method under test: {@link SolarSimulatorController#generateOutputCurve(int, int, int, String, Authentication)}
+     */
+    @Test
+    @WithMockUser(username = "jake", roles = {"USER"})
+    void findAll_SolarSimulator_OutputCurve_should_returnStatusIsOk() throws Exception {
+        MvcResult result = mvc.perform(get("/api/v1/solar-simulator/output")
+                        .param("from", "0")
+                        .param("to", "320")
+                        .param("step", "160"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()", equalTo(3)))
+                .andExpect(jsonPath("$.data[0].totalOutputInKWh", closeTo(0.0, 0.01)))
+                .andExpect(jsonPath("$.data[2].day", equalTo(320)))
+                .andExpect(jsonPath("$.data[2].totalOutputInKWh", closeTo(34686.58, 0.01)));
+    }
+
+    /**
+     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, String, String, Authentication)}
+     */
+    @Test
+    @WithMockUser(username = "jake", roles = {"USER"})
+    void findAll_SolarSimulator_TotalOutput_should_returnNotModified_when_ETagMatches() throws Exception {
+        MvcResult result = mvc.perform(get("/api/v1/solar-simulator/output/{days}", 320))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+
+        mvc.perform(get("/api/v1/solar-simulator/output/{days}", 320)
+                        .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, result.getResponse().getHeader(HttpHeaders.ETAG)));
+    }
+
+    /**
+     * Method under test: {@link SolarSimulatorController#streamNetworkDuringDays(Integer, String, Authentication)}
+     */
+    @Test
+    @WithMockUser(username = "jake", roles = {"USER"})
+    void findAll_SolarSimulator_NetworkStream_should_returnStatusIsOk() throws Exception {
+        MvcResult result = mvc.perform(get("/api/v1/solar-simulator/network/{days}", 320).param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()", equalTo(2)))
+                .andExpect(jsonPath("$.data[0].name", equalTo("Sao Paulo")));
+    }
+
+    /**
+     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, String, String, Authentication)}
+     */
+    @Test
+    @WithMockUser(username = "jake", roles = {"USER"})
+    void findAll_SolarSimulator_TotalOutput_should_matchMemory_when_SourceIsDatabase() throws Exception {
+        MvcResult memory = mvc.perform(get("/api/v1/solar-simulator/output/{days}", 320))
+                .andExpect(status().isOk())
+                .andReturn();
+        double totalOutput = JsonPath.read(memory.getResponse().getContentAsString(), "$.data.totalOutputInKWh");
 
+        mvc.perform(get("/api/v1/solar-simulator/output/{days}", 320).param("source", "database"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalOutputInKWh", closeTo(totalOutput, 0.01)));
+    }
+
+    /**
+     * Method under test: {@link SolarSimulatorController#generateOutputDuringDays(Integer, String, String, Authentication)}
+     */
+    @Test
+    @WithMockUser(username = "jake", roles = {"USER"})
+    void findAll_SolarSimulator_TotalOutput_should_returnBadRequest_when_SourceIsUnknown() throws Exception {
+        mvc.perform(get("/api/v1/solar-simulator/output/{days}", 320).param("source", "gpu"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Method under test: {@link SolarSimulatorController#generateOutputCurve(int, int, int, String, Authentication)}
+     */
+    @Test
+    @WithMockUser(username = "jake", roles = {"USER"})
+    void findAll_SolarSimulator_OutputCurve_should_returnStatusIsOk_when_SourceIsDatabase() throws Exception {
+        MvcResult result = mvc.perform(get("/api/v1/solar-simulator/output")
+                        .param("from", "0")
+                        .param("to", "320")
+                        .param("step", "160")
+                        .param("source", "database"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()", equalTo(3)))
+                .andExpect(jsonPath("$.data[2].day", equalTo(320)))
+                .andExpect(jsonPath("$.data[2].totalOutputInKWh", closeTo(34686.58, 0.01)));
+    }
+
+    /**
+     * Method under test: {@link SolarSimulatorController#getProducedOutput(Authentication)}
+     */
+    @Test
+    @WithMockUser(username = "jake", roles = {"USER"})
+    void getProducedOutput_should_returnZero_when_LedgerIsEmpty() throws Exception {
+        mvc.perform(get("/api/v1/solar-simulator/produced"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.until").doesNotExist())
+                .andExpect(jsonPath("$.data.totalOutputInKWh", closeTo(0, 0.01)));
+    }
+
+    /**
+     * Method under test: {@link SolarSimulatorController#getDailyProduction(java.time.LocalDate, java.time.LocalDate, Authentication)}
+     */
+    @Test
+    @WithMockUser(username = "jake", roles = {"USER"})
+    void getDailyProduction_should_returnBadRequest_when_RangeIsInverted() throws Exception {
+        mvc.perform(get("/api/v1/solar-simulator/produced")
+                        .param("from", "2023-03-10")
+                        .param("to", "2023-03-01"))
+                .andExpect(status().isBadRequest());
+    }
 }
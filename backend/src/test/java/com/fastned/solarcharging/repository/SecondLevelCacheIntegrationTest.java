@@ -0,0 +1,114 @@
+package com.fastned.solarcharging.repository;
+
+import com.fastned.solarcharging.IntegrationTest;
+import com.fastned.solarcharging.model.Network;
+import com.fastned.solarcharging.security.UserDetailsServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test of the second-level and query cache of the User, Role and Network entities
+ *
+ * Each lookup runs in its own transaction, so the entities cannot come from the persistence context.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheIntegrationTest extends IntegrationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private NetworkRepository networkRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    /**
+     * Auth path: loading the UserDetails (user and roles) by its username
+     */
+    @Test
+    void loadUserByUsername_should_notQueryDatabase_when_UserIsCached() {
+        userDetailsService.loadUserByUsername("jake");
+
+        statistics.clear();
+        final UserDetails userDetails = userDetailsService.loadUserByUsername("jake");
+
+        assertEquals("jake", userDetails.getUsername());
+        assertFalse(userDetails.getAuthorities().isEmpty());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    /**
+     * Ingest path: the Network of the SolarGrids (SolarGridService) and the User of the Network (NetworkService)
+     */
+    @Test
+    void findById_should_notQueryDatabase_when_NetworkAndUserAreCached() {
+        transactionTemplate.executeWithoutResult(status -> {
+            networkRepository.findById(1L).orElseThrow().getUser().getUsername();
+            userRepository.findById(2L).orElseThrow();
+        });
+
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            final Network network = networkRepository.findById(1L).orElseThrow();
+            assertEquals("jake", network.getUser().getUsername());
+            assertTrue(userRepository.findById(2L).isPresent());
+        });
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 2);
+    }
+
+    /**
+     * The query cache must not serve the results of a query on a table changed after they were cached
+     */
+    @Test
+    void existsByUserId_should_queryDatabase_when_NetworkTableChanged() {
+        assertTrue(networkRepository.existsByUserId(2L));
+
+        statistics.clear();
+        assertTrue(networkRepository.existsByUserId(2L));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        final Network network = new Network();
+        network.setName("Cache Network");
+        network.setUser(userRepository.findById(1L).orElseThrow());
+        networkRepository.save(network);
+        try {
+            statistics.clear();
+            assertTrue(networkRepository.existsByUserId(1L));
+            assertTrue(networkRepository.existsByUserId(2L));
+            assertTrue(statistics.getPrepareStatementCount() > 0);
+        } finally {
+            networkRepository.delete(network);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.fastned.solarcharging.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for JwtUtils methods
+ */
+class JwtUtilsTest {
+
+    private static final String SECRET = "c29sYXItY2hhcmdpbmctdGVzdC1zZWNyZXQ=";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final JwtUtils jwtUtils = new JwtUtils(meterRegistry);
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCacheMaxSize", 100L);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+    }
+
+    private double verifiedTokenGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", JwtUtils.VERIFIED_TOKENS_CACHE_NAME).tag("result", result)
+                .functionCounter().count();
+    }
+
+    /**
+     * Method under test: {@link JwtUtils#getUserDetailsFromJwtToken(String)}
+     */
+    @Test
+    void getUserDetailsFromJwtToken_should_returnIdAndRoles_when_TokenHasClaims() {
+        UserDetailsImpl user = new UserDetailsImpl(2L, "jake", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromJwtToken(token);
+
+        assertTrue(jwtUtils.validateJwtToken(token));
+        assertEquals(2L, userDetails.getId());
+        assertEquals("jake", userDetails.getUsername());
+        assertNull(userDetails.getPassword());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"),
+                userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    /**
+     * Method under test: {@link JwtUtils#getUserDetailsFromJwtToken(String)}
+     */
+    @Test
+    void getUserDetailsFromJwtToken_should_returnNull_when_TokenHasOnlySubject() {
+        String token = Jwts.builder()
+                .setSubject("jake")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+
+        assertNull(jwtUtils.getUserDetailsFromJwtToken(token));
+        assertEquals("jake", jwtUtils.getUsernameFromJwtToken(token));
+    }
+
+    /**
+     * Method under test: {@link JwtUtils#getVerifiedClaims(String)}
+     */
+    @Test
+    void getVerifiedClaims_should_verifyTokenOnce_when_IsRequestedAgain() {
+        UserDetailsImpl user = new UserDetailsImpl(2L, "jake", "password", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        Claims first = jwtUtils.getVerifiedClaims(token);
+        Claims second = jwtUtils.getVerifiedClaims(token);
+
+        assertSame(first, second);
+        assertEquals(1, verifiedTokenGets("miss"));
+        assertEquals(1, verifiedTokenGets("hit"));
+    }
+
+    /**
+     * Method under test: {@link JwtUtils#getVerifiedClaims(String)}
+     */
+    @Test
+    void getVerifiedClaims_should_returnNull_when_SignatureIsNotValid() {
+        String token = Jwts.builder()
+                .setSubject("jake")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "b3RoZXItc2VjcmV0LXVzZWQtZm9yLXNpZ25pbmc=")
+                .compact();
+
+        assertNull(jwtUtils.getVerifiedClaims(token));
+        assertNull(jwtUtils.getVerifiedClaims(token));
+        assertEquals(0, verifiedTokenGets("hit"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.fastned.solarcharging.security;
+
+import com.fastned.solarcharging.exception.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for PasswordHashingExecutor methods
+ */
+class PasswordHashingExecutorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PasswordHashingExecutor passwordHashingExecutor = new PasswordHashingExecutor(meterRegistry);
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(passwordHashingExecutor, "workers", 1);
+        ReflectionTestUtils.setField(passwordHashingExecutor, "queueCapacity", 1);
+        ReflectionTestUtils.setField(passwordHashingExecutor, "retryAfterSeconds", 2L);
+        ReflectionTestUtils.invokeMethod(passwordHashingExecutor, "init");
+    }
+
+    @AfterEach
+    void shutdown() {
+        ReflectionTestUtils.invokeMethod(passwordHashingExecutor, "shutdown");
+    }
+
+    /**
+     * Method under test: {@link PasswordHashingExecutor#submit(java.util.function.Supplier)}
+     */
+    @Test
+    void submit_should_runOnWorker_and_clearSecurityContext() throws Exception {
+        CompletableFuture<String> first = passwordHashingExecutor.submit(() -> {
+            SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("jake", null));
+            return Thread.currentThread().getName();
+        });
+        CompletableFuture<Boolean> second = passwordHashingExecutor.submit(() ->
+                SecurityContextHolder.getContext().getAuthentication() == null);
+
+        assertTrue(first.get(5, TimeUnit.SECONDS).startsWith("password-hashing-"));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        // a task is counted as completed after its future, so the workers are terminated first
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(passwordHashingExecutor, "executor");
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, meterRegistry.get("executor.completed").tag("name", PasswordHashingExecutor.EXECUTOR_NAME)
+                .functionCounter().count());
+    }
+
+    /**
+     * Method under test: {@link PasswordHashingExecutor#submit(java.util.function.Supplier)}
+     */
+    @Test
+    void submit_should_throwServiceBusyException_when_WorkersAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = passwordHashingExecutor.submit(() -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Boolean> queued = passwordHashingExecutor.submit(() -> true);
+
+        ServiceBusyException exception = assertThrows(ServiceBusyException.class, () -> {
+            passwordHashingExecutor.submit(() -> true);
+        });
+        assertEquals(2, exception.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get("executor.queued").tag("name", PasswordHashingExecutor.EXECUTOR_NAME)
+                .gauge().value());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,31 @@
+package com.fastned.solarcharging.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for TimedPasswordEncoder methods
+ */
+class TimedPasswordEncoderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TimedPasswordEncoder encoder = new TimedPasswordEncoder(new BCryptPasswordEncoder(4), meterRegistry);
+
+    /**
+     * Method under test: {@link TimedPasswordEncoder#matches(CharSequence, String)}
+     */
+    @Test
+    void matches_should_delegate_and_recordLatency() {
+        String encoded = encoder.encode("password");
+
+        assertTrue(encoder.matches("password", encoded));
+        assertFalse(encoder.matches("other", encoded));
+        assertEquals(1, meterRegistry.get(TimedPasswordEncoder.METRIC_NAME).tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get(TimedPasswordEncoder.METRIC_NAME).tag("operation", "matches").timer().count());
+    }
+}
@@ -0,0 +1,93 @@
+package com.fastned.solarcharging.security;
+
+import com.fastned.solarcharging.service.cache.CacheInvalidationBus;
+import com.fastned.solarcharging.service.cache.InvalidationTopic;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for UserDetailsCache methods
+ */
+@ExtendWith(MockitoExtension.class)
+class UserDetailsCacheTest {
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserDetailsCache userDetailsCache;
+
+    private final UserDetails jake = new UserDetailsImpl(2L, "jake", "password", List.of());
+
+    @BeforeEach
+    void setup() {
+        userDetailsCache = new UserDetailsCache(userDetailsService, meterRegistry, cacheInvalidationBus);
+        ReflectionTestUtils.setField(userDetailsCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(userDetailsCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.invokeMethod(userDetailsCache, "init");
+    }
+
+    /**
+     * Method under test: {@link UserDetailsCache#get(String)}
+     */
+    @Test
+    void get_should_loadUserOnce_when_IsCached() {
+        when(userDetailsService.loadUserByUsername("jake")).thenReturn(jake);
+
+        assertSame(jake, userDetailsCache.get("jake"));
+        assertSame(jake, userDetailsCache.get("jake"));
+
+        verify(userDetailsService, times(1)).loadUserByUsername("jake");
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", UserDetailsCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", UserDetailsCache.CACHE_NAME).tag("result", "miss").functionCounter().count());
+    }
+
+    /**
+     * Method under test: {@link UserDetailsCache#evict(String)}
+     */
+    @Test
+    void evict_should_reloadUser_when_IsRequestedAgain() {
+        when(userDetailsService.loadUserByUsername("jake")).thenReturn(jake);
+
+        userDetailsCache.get("jake");
+        userDetailsCache.evict("jake");
+        userDetailsCache.get("jake");
+
+        verify(userDetailsService, times(2)).loadUserByUsername("jake");
+        verify(cacheInvalidationBus).publish(InvalidationTopic.USER_DETAILS, "jake");
+    }
+
+    /**
+     * Method under test: {@link UserDetailsCache#get(String)}
+     */
+    @Test
+    void get_should_throwUsernameNotFoundException_when_UserIsNotFound() {
+        when(userDetailsService.loadUserByUsername("nobody")).thenThrow(new UsernameNotFoundException("nobody"));
+
+        assertThrows(UsernameNotFoundException.class, () -> {
+            userDetailsCache.get("nobody");
+        });
+        assertThrows(UsernameNotFoundException.class, () -> {
+            userDetailsCache.get("nobody");
+        });
+
+        verify(userDetailsService, times(2)).loadUserByUsername("nobody");
+    }
+}
@@ -12,6 +12,9 @@ import com.fastned.solarcharging.model.User;
 import com.fastned.solarcharging.repository.UserRepository;
 import com.fastned.solarcharging.security.JwtUtils;
 import com.fastned.solarcharging.security.UserDetailsImpl;
+import com.fastned.solarcharging.security.UserDetailsCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -57,6 +60,12 @@ class AuthServiceTest {
     @Mock
     private UserRequestMapper userRequestMapper;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @Captor
     private ArgumentCaptor<User> userCaptor;
 
@@ -136,4 +145,30 @@ class AuthServiceTest {
 
         verify(userRepository, never()).save(any());
     }
+
+    /**
+     * Method under test: {@link AuthService#logout(String)}
+     */
+    @Test
+    void logout_should_revokeToken_when_TokenIsValid() {
+        Claims claims = Jwts.claims().setId("jti").setSubject("jake");
+        when(jwtUtils.getVerifiedClaims("token")).thenReturn(claims);
+
+        authService.logout("token");
+
+        verify(tokenRevocationService).revokeToken(claims);
+    }
+
+    /**
+     * Method under test: {@link AuthService#logout(String)}
+     */
+    @Test
+    void logout_should_notRevoke_when_TokenIsNotValid() {
+        when(jwtUtils.getVerifiedClaims("token")).thenReturn(null);
+
+        authService.logout("token");
+        authService.logout(null);
+
+        verifyNoInteractions(tokenRevocationService);
+    }
 }
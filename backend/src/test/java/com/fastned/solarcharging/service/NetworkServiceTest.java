@@ -1,15 +1,19 @@
 package com.fastned.solarcharging.service;
 
+import com.fastned.solarcharging.common.KeysetCursor;
 import com.fastned.solarcharging.dto.mapper.NetworkRequestMapper;
 import com.fastned.solarcharging.dto.mapper.NetworkResponseMapper;
 import com.fastned.solarcharging.dto.mapper.UserRequestMapper;
 import com.fastned.solarcharging.dto.request.NetworkRequest;
+import com.fastned.solarcharging.dto.response.CursorPage;
 import com.fastned.solarcharging.dto.response.NetworkResponse;
 import com.fastned.solarcharging.exception.NoSuchElementFoundException;
 import com.fastned.solarcharging.model.Network;
 import com.fastned.solarcharging.model.SolarGrid;
 import com.fastned.solarcharging.model.User;
 import com.fastned.solarcharging.repository.NetworkRepository;
+import com.fastned.solarcharging.service.cache.SecondLevelCacheInvalidator;
+import com.fastned.solarcharging.service.simulation.FleetSnapshotStore;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -20,11 +24,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -54,6 +60,12 @@ class NetworkServiceTest {
     @Mock
     private UserRequestMapper userRequestMapper;
 
+    @Mock
+    private FleetSnapshotStore fleetSnapshotStore;
+
+    @Mock
+    private SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+
     @Captor
     private ArgumentCaptor<Network> networkCaptor;
 
@@ -87,6 +99,40 @@ class NetworkServiceTest {
         verify(networkRepository).findAll(pageable);
     }
 
+    /**
+     * Method under test: {@link NetworkService#findAll(String, int)}
+     */
+    @Test
+    void findAll_should_returnNextCursor_when_SliceHasNext() {
+        Network network = new Network();
+        network.setId(7L);
+        NetworkResponse response = new NetworkResponse();
+        response.setId(7L);
+        when(networkRepository.findByIdGreaterThanOrderByIdAsc(5L, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(network), PageRequest.of(0, 1), true));
+        when(networkResponseMapper.toDto(network)).thenReturn(response);
+
+        CursorPage<NetworkResponse> page = networkService.findAll(KeysetCursor.encode(5L), 1);
+
+        assertEquals(List.of(response), page.getContent());
+        assertTrue(page.isHasNext());
+        assertEquals(KeysetCursor.encode(7L), page.getNextCursor());
+        verify(networkRepository, never()).count();
+    }
+
+    /**
+     * Method under test: {@link NetworkService#findAll(String, int)}
+     */
+    @Test
+    void findAll_should_throwNoSuchElementFoundException_when_FirstSliceIsEmpty() {
+        when(networkRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 20)))
+                .thenReturn(new SliceImpl<>(new ArrayList<>()));
+
+        assertThrows(NoSuchElementFoundException.class, () -> {
+            networkService.findAll("", 20);
+        });
+    }
+
     /**
      * Method under test: {@link NetworkService#findAllByUserId(long)}
      */
@@ -159,7 +205,7 @@ class NetworkServiceTest {
         request.setId(11L);
         request.setIdUser(21L);
         request.setIdUser(31L);
-        when(networkRepository.existsById(11L)).thenReturn(false);
+        when(networkRepository.findById(11L)).thenReturn(Optional.empty());
 
         assertThrows(NoSuchElementFoundException.class, () -> {
             networkService.update(request);
@@ -0,0 +1,157 @@
+package com.fastned.solarcharging.service;
+
+import com.fastned.solarcharging.service.cache.CacheInvalidationBus;
+import com.fastned.solarcharging.service.cache.InvalidationTopic;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Test for SolarGridNameIndex methods
+ */
+@ExtendWith(MockitoExtension.class)
+class SolarGridNameIndexTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private SolarGridNameIndex solarGridNameIndex;
+
+    @BeforeEach
+    void setup() {
+        solarGridNameIndex = new SolarGridNameIndex(jdbcTemplate, cacheInvalidationBus);
+        ReflectionTestUtils.setField(solarGridNameIndex, "expectedNames", 1000L);
+        ReflectionTestUtils.setField(solarGridNameIndex, "falsePositiveRate", 0.01);
+    }
+
+    private void init(String... lowerNames) {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn((long) lowerNames.length);
+        when(jdbcTemplate.queryForStream(anyString(), any(RowMapper.class))).thenReturn(Stream.of(lowerNames));
+        ReflectionTestUtils.invokeMethod(solarGridNameIndex, "init");
+    }
+
+    /**
+     * Method under test: {@link SolarGridNameIndex#mightExist(String)}
+     */
+    @Test
+    void mightExist_should_ignoreCase_when_NameIsLoaded() {
+        init("sao paulo", "brasilia");
+
+        assertTrue(solarGridNameIndex.mightExist("Sao Paulo"));
+        assertTrue(solarGridNameIndex.mightExist("BRASILIA"));
+    }
+
+    /**
+     * Method under test: {@link SolarGridNameIndex#mightExist(String)}
+     */
+    @Test
+    void mightExist_should_returnFalse_when_NameIsNotInUse() {
+        init("sao paulo", "brasilia");
+
+        assertFalse(solarGridNameIndex.mightExist("Amsterdam"));
+    }
+
+    /**
+     * Method under test: {@link SolarGridNameIndex#add(String)}
+     */
+    @Test
+    void add_should_indexName_when_SolarGridIsCreated() {
+        init();
+
+        solarGridNameIndex.add("Amsterdam");
+
+        assertTrue(solarGridNameIndex.mightExist("amsterdam"));
+    }
+
+    /**
+     * Method under test: {@link SolarGridNameIndex#addAll(Collection)}
+     */
+    @Test
+    void addAll_should_publishNames_to_OtherNodes() {
+        init();
+
+        solarGridNameIndex.addAll(List.of("Amsterdam", "Utrecht"));
+
+        assertTrue(solarGridNameIndex.mightExist("utrecht"));
+        verify(cacheInvalidationBus).publishAll(InvalidationTopic.SOLAR_GRID_NAME, List.of("name:amsterdam", "name:utrecht"));
+    }
+
+    /**
+     * Method under test: {@link SolarGridNameIndex#invalidateLocally(String)}
+     */
+    @Test
+    void invalidateLocally_should_indexName_when_IsCreatedByAnotherNode() {
+        init();
+
+        solarGridNameIndex.invalidateLocally("name:amsterdam");
+
+        assertTrue(solarGridNameIndex.mightExist("Amsterdam"));
+        verifyNoInteractions(cacheInvalidationBus);
+    }
+
+    /**
+     * Method under test: {@link SolarGridNameIndex#invalidateLocally(String)}
+     */
+    @Test
+    void invalidateLocally_should_indexNamesOfNetwork_when_IsBulkLoaded() {
+        init();
+        when(jdbcTemplate.queryForStream(anyString(), any(RowMapper.class), eq(7L))).thenReturn(Stream.of("delft", "utrecht"));
+
+        solarGridNameIndex.invalidateLocally("network:7");
+
+        assertTrue(solarGridNameIndex.mightExist("Delft"));
+        assertTrue(solarGridNameIndex.mightExist("Utrecht"));
+    }
+
+    /**
+     * Method under test: {@link SolarGridNameIndex#rebuild()}
+     */
+    @Test
+    void rebuild_should_keepNames_when_AreAddedDuringRebuild() {
+        init();
+        when(jdbcTemplate.queryForStream(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+            // created after the names were read by the rebuild
+            solarGridNameIndex.add("Utrecht");
+            return Stream.of("amsterdam");
+        });
+
+        solarGridNameIndex.rebuild();
+
+        assertTrue(solarGridNameIndex.mightExist("Amsterdam"));
+        assertTrue(solarGridNameIndex.mightExist("Utrecht"));
+    }
+
+    /**
+     * Method under test: {@link SolarGridNameIndex#rebuild()}
+     */
+    @Test
+    void rebuild_should_dropNames_when_SolarGridsAreDeleted() {
+        init("amsterdam");
+        when(jdbcTemplate.queryForStream(anyString(), any(RowMapper.class))).thenReturn(Stream.of("utrecht"));
+
+        solarGridNameIndex.rebuild();
+
+        assertFalse(solarGridNameIndex.mightExist("Amsterdam"));
+        assertTrue(solarGridNameIndex.mightExist("Utrecht"));
+    }
+}
@@ -0,0 +1,43 @@
+package com.fastned.solarcharging.service;
+
+import com.fastned.solarcharging.IntegrationTest;
+import com.fastned.solarcharging.dto.request.SolarGridRequest;
+import com.fastned.solarcharging.exception.ElementAlreadyExistsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Integration Test of the SolarGrid inserts against the unique index on lower(name) of the PostgreSQL container
+ */
+class SolarGridServiceIntegrationTest extends IntegrationTest {
+
+    @Autowired
+    private SolarGridService solarGridService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Method under test: {@link SolarGridService#createAll(List)}
+     */
+    @Test
+    void createAll_should_throwElementAlreadyExistsException_when_NameIsTakenConcurrently() {
+        // inserted behind the name index, the way a concurrent request of another node is
+        jdbcTemplate.update("INSERT INTO solar_grid (id, name, age, power_output, created_at, network_id) "
+                + "VALUES (nextval('sequence_solar_grid'), 'Rotterdam', 100, 0, current_timestamp, 1)");
+
+        SolarGridRequest request = new SolarGridRequest();
+        request.setName("ROTTERDAM");
+        request.setAge(200);
+        request.setIdNetwork(1L);
+
+        assertThrows(ElementAlreadyExistsException.class, () -> {
+            solarGridService.createAll(List.of(request));
+        });
+    }
+}
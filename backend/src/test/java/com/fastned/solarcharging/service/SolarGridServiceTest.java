@@ -1,12 +1,22 @@
 package com.fastned.solarcharging.service;
 
+import com.fastned.solarcharging.common.KeysetCursor;
 import com.fastned.solarcharging.dto.mapper.SolarGridRequestMapper;
 import com.fastned.solarcharging.dto.mapper.SolarGridResponseMapper;
 import com.fastned.solarcharging.dto.request.SolarGridRequest;
+import com.fastned.solarcharging.dto.response.CursorPage;
+import com.fastned.solarcharging.dto.response.SolarGridResponse;
 import com.fastned.solarcharging.exception.ElementAlreadyExistsException;
 import com.fastned.solarcharging.exception.NoSuchElementFoundException;
+import com.fastned.solarcharging.model.Network;
 import com.fastned.solarcharging.model.SolarGrid;
+import com.fastned.solarcharging.model.User;
+import com.fastned.solarcharging.repository.NetworkRepository;
 import com.fastned.solarcharging.repository.SolarGridRepository;
+import com.fastned.solarcharging.service.simulation.FleetSnapshotStore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -14,15 +24,28 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static com.fastned.solarcharging.service.util.SolarGridUtils.PERSISTENCE_BATCH_SIZE;
+import static com.fastned.solarcharging.service.util.SolarGridUtils.powerOutputAt;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -37,15 +60,43 @@ class SolarGridServiceTest {
     @Mock
     private SolarGridRepository solarGridRepository;
 
+    @Mock
+    private NetworkRepository networkRepository;
+
     @Mock
     private SolarGridRequestMapper solarGridRequestMapper;
 
     @Mock
     private SolarGridResponseMapper solarGridResponseMapper;
 
+    @Mock
+    private FleetSnapshotStore fleetSnapshotStore;
+
+    @Mock
+    private SolarGridNameIndex solarGridNameIndex;
+
+    @Mock
+    private EntityManager entityManager;
+
     @Captor
     private ArgumentCaptor<SolarGrid> solarGridCaptor;
 
+    private static SolarGridRequest request(String name, Integer age) {
+        SolarGridRequest request = new SolarGridRequest();
+        request.setName(name);
+        request.setAge(age);
+        request.setIdNetwork(1L);
+        return request;
+    }
+
+    private static Network network(long userId) {
+        User user = new User();
+        user.setId(userId);
+        Network network = new Network();
+        network.setUser(user);
+        return network;
+    }
+
     /**
      * Method under test: {@link SolarGridService#getById(long)}
      */
@@ -78,6 +129,107 @@ class SolarGridServiceTest {
     }
 
 
+    /**
+     * Method under test: {@link SolarGridService#findByUserId(long)}
+     */
+    @Test
+    void findByUserId_should_returnSolarGridsOfAllNetworks_when_IsFound() {
+        List<SolarGridResponse> solarGrids = List.of(new SolarGridResponse(949, "Sao Paulo"), new SolarGridResponse(823, "Brasilia"));
+        when(solarGridRepository.findResponsesByUserId(2L)).thenReturn(solarGrids);
+
+        assertEquals(solarGrids, solarGridService.findByUserId(2L));
+
+        verify(networkRepository, never()).findAllByUserId(anyLong());
+        verify(solarGridRepository, never()).findAllByNetworkId(anyLong());
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#findByUserId(long)}
+     */
+    @Test
+    void findByUserId_should_throwNoSuchElementFoundException_when_NetworkIsNotFound() {
+        when(solarGridRepository.findResponsesByUserId(999L)).thenReturn(List.of());
+        when(networkRepository.existsByUserId(999L)).thenReturn(false);
+
+        assertThrows(NoSuchElementFoundException.class, () -> {
+            solarGridService.findByUserId(999L);
+        });
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#findByUserId(long, Pageable)}
+     */
+    @Test
+    void findByUserId_should_sortById_when_PageIsNotSorted() {
+        when(solarGridRepository.findResponsesByUserId(eq(2L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(new SolarGridResponse(949, "Sao Paulo"))));
+
+        assertEquals(1, solarGridService.findByUserId(2L, PageRequest.of(0, 10)).getTotalElements());
+
+        verify(solarGridRepository).findResponsesByUserId(2L, PageRequest.of(0, 10, Sort.by("id")));
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#findAll(String, int)}
+     */
+    @Test
+    void findAll_should_seekAfterCursor_when_CursorIsGiven() {
+        SolarGridResponse response = new SolarGridResponse(12L, "Amsterdam", 100, 20.0, null);
+        when(solarGridRepository.findResponsesAfter(10L, PageRequest.of(0, KeysetCursor.MAX_SIZE)))
+                .thenReturn(new SliceImpl<>(List.of(response), PageRequest.of(0, KeysetCursor.MAX_SIZE), false));
+
+        CursorPage<SolarGridResponse> page = solarGridService.findAll(KeysetCursor.encode(10L), KeysetCursor.MAX_SIZE + 1);
+
+        assertEquals(List.of(response), page.getContent());
+        assertNull(page.getNextCursor());
+        verify(solarGridRepository, never()).count();
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#writeByUserId(long, SolarGridService.SolarGridWriter)}
+     */
+    @Test
+    void writeByUserId_should_writeEachSolarGrid_and_closeStream_when_IsFound() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        SolarGridResponse first = new SolarGridResponse(1L, "Sao Paulo", 949, 20.0, null);
+        SolarGridResponse second = new SolarGridResponse(2L, "Brasilia", 823, 20.0, null);
+        when(solarGridRepository.streamResponsesByUserId(2L)).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+
+        List<SolarGridResponse> written = new ArrayList<>();
+        solarGridService.writeByUserId(2L, written::add);
+
+        assertEquals(List.of(first, second), written);
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#exportByUserId(long, SolarGridService.SolarGridWriter)}
+     */
+    @Test
+    void exportByUserId_should_writeEachSolarGrid_and_closeStream_when_IsFound() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        SolarGridResponse first = new SolarGridResponse(1L, "Sao Paulo", 949, 20.0, null);
+        when(solarGridRepository.streamResponsesByUserId(2L)).thenReturn(Stream.of(first).onClose(() -> closed.set(true)));
+
+        List<SolarGridResponse> written = new ArrayList<>();
+        solarGridService.exportByUserId(2L, written::add);
+
+        assertEquals(List.of(first), written);
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#checkNetworkExists(long)}
+     */
+    @Test
+    void checkNetworkExists_should_throwNoSuchElementFoundException_when_NetworkIsNotFound() {
+        when(networkRepository.existsByUserId(2L)).thenReturn(false);
+
+        assertThrows(NoSuchElementFoundException.class, () -> {
+            solarGridService.checkNetworkExists(2L);
+        });
+    }
+
     /**
      * Method under test: {@link SolarGridService#create(SolarGridRequest)}
      */
@@ -86,15 +238,164 @@ class SolarGridServiceTest {
         SolarGridRequest request = new SolarGridRequest();
         request.setName("Amsterdam");
 
+        when(solarGridNameIndex.mightExist("Amsterdam")).thenReturn(true);
         when(solarGridRepository.existsByNameIgnoreCase("Amsterdam")).thenReturn(true);
 
         assertThrows(ElementAlreadyExistsException.class, () -> {
             solarGridService.create(request);
         });
 
-        verify(solarGridRepository, never()).save(any());
+        verify(solarGridRepository, never()).saveAndFlush(any());
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#create(SolarGridRequest)}
+     */
+    @Test
+    void create_should_notQueryName_when_NameIsNotIndexed() {
+        SolarGridRequest request = request("Amsterdam", 100);
+        SolarGrid solarGrid = new SolarGrid();
+        solarGrid.setName("Amsterdam");
+
+        when(solarGridNameIndex.mightExist("Amsterdam")).thenReturn(false);
+        when(solarGridRequestMapper.toEntity(request)).thenReturn(solarGrid);
+        when(networkRepository.findById(1L)).thenReturn(Optional.of(network(12L)));
+
+        solarGridService.create(request);
+
+        verify(solarGridRepository, never()).existsByNameIgnoreCase(any());
+        verify(solarGridRepository).saveAndFlush(solarGrid);
+        verify(solarGridNameIndex).add("Amsterdam");
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#create(SolarGridRequest)}
+     */
+    @Test
+    void create_should_throwElementAlreadyExistsException_when_NameIsTakenConcurrently() {
+        SolarGridRequest request = request("Amsterdam", 100);
+        SolarGrid solarGrid = new SolarGrid();
+
+        when(solarGridNameIndex.mightExist("Amsterdam")).thenReturn(false);
+        when(solarGridRequestMapper.toEntity(request)).thenReturn(solarGrid);
+        when(networkRepository.findById(1L)).thenReturn(Optional.of(network(12L)));
+        when(solarGridRepository.saveAndFlush(solarGrid)).thenThrow(new DataIntegrityViolationException("uc_solar_grid_lower_name"));
+
+        assertThrows(ElementAlreadyExistsException.class, () -> {
+            solarGridService.create(request);
+        });
+
+        verify(solarGridNameIndex, never()).add(any());
+        verify(fleetSnapshotStore, never()).invalidate(anyLong());
+    }
+
+
+    /**
+     * Method under test: {@link SolarGridService#createAll(List)}
+     */
+    @Test
+    void createAll_should_skipRequests_when_NameIsDuplicatedOrMissing() {
+        List<SolarGridRequest> requests = List.of(request("Amsterdam", 100), request("Utrecht", 200),
+                request("UTRECHT", 300), request(null, 400), request("Delft", null));
+
+        when(solarGridNameIndex.mightExist(anyString())).thenAnswer(invocation -> !invocation.getArgument(0).equals("delft"));
+        when(solarGridRepository.findExistingNames(Set.of("amsterdam", "utrecht"))).thenReturn(List.of("amsterdam"));
+        when(networkRepository.findById(1L)).thenReturn(Optional.of(network(12L)));
+        when(solarGridRequestMapper.toEntity(any())).thenAnswer(invocation -> new SolarGrid());
+        when(solarGridResponseMapper.toDto(any())).thenReturn(new SolarGridResponse());
+
+        List<SolarGridResponse> created = solarGridService.createAll(requests);
+
+        assertEquals(1, created.size());
+        verify(entityManager).persist(solarGridCaptor.capture());
+        assertEquals(powerOutputAt(200), solarGridCaptor.getValue().getPowerOutput());
+        verify(solarGridRepository, never()).existsByNameIgnoreCase(any());
+        verify(fleetSnapshotStore).invalidate(12L);
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#createAll(List, boolean)}
+     */
+    @Test
+    void createAll_should_queryAllNames_when_NameIndexIsNotUsed() {
+        List<SolarGridRequest> requests = List.of(request("Amsterdam", 100), request("Utrecht", 200));
+
+        when(solarGridRepository.findExistingNames(Set.of("amsterdam", "utrecht"))).thenReturn(List.of("utrecht"));
+        when(networkRepository.findById(1L)).thenReturn(Optional.of(network(12L)));
+        when(solarGridRequestMapper.toEntity(any())).thenAnswer(invocation -> {
+            SolarGrid solarGrid = new SolarGrid();
+            solarGrid.setName(((SolarGridRequest) invocation.getArgument(0)).getName());
+            return solarGrid;
+        });
+
+        assertEquals(1, solarGridService.createAll(requests, false).size());
+
+        verify(solarGridNameIndex, never()).mightExist(any());
+        verify(solarGridNameIndex).addAll(List.of("Amsterdam"));
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#createAll(List)}
+     */
+    @Test
+    void createAll_should_flushAndClearPersistenceContext_when_BatchIsFull() {
+        List<SolarGridRequest> requests = new ArrayList<>();
+        for (int i = 0; i < PERSISTENCE_BATCH_SIZE * 2 + 1; i++)
+            requests.add(request("Grid " + i, i));
+
+        when(solarGridNameIndex.mightExist(anyString())).thenReturn(false);
+        when(networkRepository.findById(1L)).thenReturn(Optional.of(network(12L)));
+        when(solarGridRequestMapper.toEntity(any())).thenAnswer(invocation -> new SolarGrid());
+
+        assertEquals(requests.size(), solarGridService.createAll(requests).size());
+
+        verify(solarGridRepository, never()).findExistingNames(any());
+        verify(networkRepository).findById(1L);
+        verify(entityManager, times(requests.size())).persist(any());
+        // two full batches, and the remaining one
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
     }
 
+    /**
+     * Method under test: {@link SolarGridService#createAll(List)}
+     */
+    @Test
+    void createAll_should_throwElementAlreadyExistsException_when_NameIsTakenConcurrently() {
+        List<SolarGridRequest> requests = List.of(request("Amsterdam", 100));
+
+        when(solarGridNameIndex.mightExist(anyString())).thenReturn(false);
+        when(networkRepository.findById(1L)).thenReturn(Optional.of(network(12L)));
+        when(solarGridRequestMapper.toEntity(any())).thenAnswer(invocation -> new SolarGrid());
+        // the way Hibernate reports the violation of the unique index on lower(name) raised by a flush
+        doThrow(new PersistenceException(new ConstraintViolationException("duplicate key value",
+                new SQLException("duplicate key value", "23505"), "uc_solar_grid_lower_name")))
+                .when(entityManager).flush();
+
+        assertThrows(ElementAlreadyExistsException.class, () -> {
+            solarGridService.createAll(requests);
+        });
+
+        verify(entityManager, never()).clear();
+        verify(fleetSnapshotStore, never()).invalidate(anyLong());
+    }
+
+    /**
+     * Method under test: {@link SolarGridService#createAll(List)}
+     */
+    @Test
+    void createAll_should_rethrowPersistenceException_when_FlushFailsOtherwise() {
+        List<SolarGridRequest> requests = List.of(request("Amsterdam", 100));
+
+        when(solarGridNameIndex.mightExist(anyString())).thenReturn(false);
+        when(networkRepository.findById(1L)).thenReturn(Optional.of(network(12L)));
+        when(solarGridRequestMapper.toEntity(any())).thenAnswer(invocation -> new SolarGrid());
+        doThrow(new PersistenceException("connection lost")).when(entityManager).flush();
+
+        assertThrows(PersistenceException.class, () -> {
+            solarGridService.createAll(requests);
+        });
+    }
 
     /**
      * Method under test: {@link SolarGridService#update(SolarGridRequest)}
@@ -110,6 +411,7 @@ class SolarGridServiceTest {
         request.setName("Amsterdam");
 
         when(solarGridRepository.findById(101L)).thenReturn(Optional.of(solarGrid));
+        when(solarGridNameIndex.mightExist("Amsterdam")).thenReturn(true);
         when(solarGridRepository.existsByNameIgnoreCase("Amsterdam")).thenReturn(true);
 
         assertThrows(ElementAlreadyExistsException.class, () -> {
@@ -127,6 +429,7 @@ class SolarGridServiceTest {
         SolarGrid solarGrid = new SolarGrid();
         solarGrid.setId(101L);
         solarGrid.setName("Maastricht");
+        solarGrid.setNetwork(network(12L));
 
         when(solarGridRepository.findById(101L)).thenReturn(Optional.of(solarGrid));
 
@@ -136,6 +439,7 @@ class SolarGridServiceTest {
 
         assertEquals(101L, capturedSolarGrid.getId());
         assertEquals("Maastricht", capturedSolarGrid.getName());
+        verify(fleetSnapshotStore).invalidate(12L);
     }
 
     /**
@@ -0,0 +1,148 @@
+package com.fastned.solarcharging.service;
+
+import com.fastned.solarcharging.model.RevokedToken;
+import com.fastned.solarcharging.repository.RevokedTokenRepository;
+import com.fastned.solarcharging.service.cache.CacheInvalidationBus;
+import com.fastned.solarcharging.service.cache.InvalidationTopic;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static com.fastned.solarcharging.security.JwtUtils.CLAIM_ID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for TokenRevocationService methods
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2023-03-01T10:00:00Z");
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setup() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, cacheInvalidationBus, Clock.fixed(NOW, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(tokenRevocationService, "jwtExpirationMs", 1800000);
+        ReflectionTestUtils.setField(tokenRevocationService, "expectedTokens", 1000L);
+        ReflectionTestUtils.setField(tokenRevocationService, "falsePositiveRate", 0.01);
+    }
+
+    private void init(String... revokedKeys) {
+        when(revokedTokenRepository.findActiveKeys(any())).thenReturn(List.of(revokedKeys));
+        ReflectionTestUtils.invokeMethod(tokenRevocationService, "init");
+    }
+
+    private static Claims claims(String jti, long userId, Instant issuedAt) {
+        return Jwts.claims()
+                .setId(jti)
+                .setSubject("jake")
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(issuedAt.plusSeconds(1800)));
+    }
+
+    private static Claims userClaims(String jti, long userId, Instant issuedAt) {
+        final Claims claims = claims(jti, userId, issuedAt);
+        claims.put(CLAIM_ID, userId);
+        return claims;
+    }
+
+    /**
+     * Method under test: {@link TokenRevocationService#isRevoked(Claims)}
+     */
+    @Test
+    void isRevoked_should_notQueryDatabase_when_TokenIsNotInFilter() {
+        init("revoked-jti");
+
+        assertFalse(tokenRevocationService.isRevoked(userClaims("valid-jti", 2L, NOW)));
+
+        verify(revokedTokenRepository, never()).existsById(any());
+        verify(revokedTokenRepository, never()).findById(any());
+    }
+
+    /**
+     * Method under test: {@link TokenRevocationService#isRevoked(Claims)}
+     */
+    @Test
+    void isRevoked_should_returnTrue_when_TokenIsRevokedAfterStartup() {
+        init();
+        Claims claims = userClaims("jti", 2L, NOW);
+
+        tokenRevocationService.revokeToken(claims);
+        when(revokedTokenRepository.existsById("jti")).thenReturn(true);
+
+        assertTrue(tokenRevocationService.isRevoked(claims));
+
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(captor.capture());
+        assertEquals("jti", captor.getValue().getTokenKey());
+        assertEquals(claims.getExpiration(), captor.getValue().getExpiresAt());
+        verify(cacheInvalidationBus).publish(InvalidationTopic.REVOKED_TOKEN, "jti");
+    }
+
+    /**
+     * Method under test: {@link TokenRevocationService#invalidateLocally(String)}
+     */
+    @Test
+    void isRevoked_should_checkDatabase_when_TokenIsRevokedByAnotherNode() {
+        init();
+        Claims claims = userClaims("jti", 2L, NOW);
+
+        tokenRevocationService.invalidateLocally("jti");
+        when(revokedTokenRepository.existsById("jti")).thenReturn(true);
+
+        assertTrue(tokenRevocationService.isRevoked(claims));
+        verifyNoInteractions(cacheInvalidationBus);
+    }
+
+    /**
+     * Method under test: {@link TokenRevocationService#isRevoked(Claims)}
+     */
+    @Test
+    void isRevoked_should_revokeOnlyTokensIssuedBefore_when_UserTokensAreRevoked() {
+        init("user:2");
+        when(revokedTokenRepository.findById("user:2"))
+                .thenReturn(Optional.of(new RevokedToken("user:2", Date.from(NOW), Date.from(NOW.plusSeconds(1800)))));
+
+        assertTrue(tokenRevocationService.isRevoked(userClaims("old-jti", 2L, NOW.minusSeconds(60))));
+        assertFalse(tokenRevocationService.isRevoked(userClaims("new-jti", 2L, NOW.plusSeconds(1))));
+        assertFalse(tokenRevocationService.isRevoked(claims("legacy-jti", 2L, NOW.minusSeconds(60))));
+    }
+
+    /**
+     * Method under test: {@link TokenRevocationService#prune()}
+     */
+    @Test
+    void prune_should_deleteExpiredRevocations_and_rebuildFilter() {
+        init("jti");
+        when(revokedTokenRepository.findActiveKeys(any())).thenReturn(List.of());
+
+        tokenRevocationService.prune();
+
+        verify(revokedTokenRepository).deleteExpired(Date.from(NOW));
+        assertFalse(tokenRevocationService.isRevoked(userClaims("jti", 2L, NOW)));
+        verify(revokedTokenRepository, never()).existsById(any());
+    }
+}
@@ -13,12 +13,16 @@ import com.fastned.solarcharging.model.Role;
 import com.fastned.solarcharging.model.RoleType;
 import com.fastned.solarcharging.model.User;
 import com.fastned.solarcharging.repository.UserRepository;
+import com.fastned.solarcharging.security.UserDetailsCache;
+import com.fastned.solarcharging.security.UserDetailsImpl;
+import com.fastned.solarcharging.service.cache.SecondLevelCacheInvalidator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -55,6 +59,15 @@ class UserServiceTest {
     @Mock
     private UserResponseMapper userResponseMapper;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+
     @Captor
     private ArgumentCaptor<User> userCaptor;
 
@@ -138,6 +151,56 @@ class UserServiceTest {
         verify(userRepository, never()).save(any());
     }
 
+    private static User admin() {
+        User user = new User();
+        user.setId(101L);
+        user.setUsername("jake");
+        user.addRole(new Role(1L, RoleType.ROLE_USER));
+        user.addRole(new Role(2L, RoleType.ROLE_ADMIN));
+        return user;
+    }
+
+    /**
+     * Method under test: {@link UserService#update(ProfileRequest)}
+     */
+    @Test
+    void update_should_revokeTokens_when_AdminRoleIsRemoved() {
+        User user = admin();
+        ProfileRequest request = new ProfileRequest();
+        request.setId(101L);
+        request.setFirstName("jake");
+        request.setLastName("doe");
+        request.setRoles(Set.of(RoleType.ROLE_USER.name()));
+
+        when(userRepository.findById(101L)).thenReturn(Optional.of(user));
+
+        userService.update(request);
+
+        assertEquals(Set.of(new Role(1L, RoleType.ROLE_USER)), user.getRoles());
+        verify(userDetailsCache).evict("jake");
+        verify(tokenRevocationService).revokeUserTokens(101L);
+    }
+
+    /**
+     * Method under test: {@link UserService#update(ProfileRequest)}
+     */
+    @Test
+    void update_should_keepTokens_when_RolesAreUnchanged() {
+        User user = admin();
+        ProfileRequest request = new ProfileRequest();
+        request.setId(101L);
+        request.setFirstName("jake");
+        request.setLastName("doe");
+        request.setRoles(Set.of(RoleType.ROLE_USER.name(), RoleType.ROLE_ADMIN.name()));
+
+        when(userRepository.findById(101L)).thenReturn(Optional.of(user));
+
+        userService.update(request);
+
+        verify(userRepository).save(user);
+        verifyNoInteractions(tokenRevocationService);
+    }
+
     /**
      * Method under test: {@link UserService#updateFullName(ProfileRequest)}
      */
@@ -170,4 +233,69 @@ class UserServiceTest {
         verify(userRepository).findById(id);
         verify(userRepository, never()).delete(any());
     }
+
+    /**
+     * Method under test: {@link UserService#deleteById(long)}
+     */
+    @Test
+    void deleteById_should_evictUserDetails_when_IsFound() {
+        User user = new User();
+        user.setId(101L);
+        user.setUsername("jake");
+        when(userRepository.findById(101L)).thenReturn(Optional.of(user));
+
+        userService.deleteById(101L);
+
+        verify(userRepository).delete(user);
+        // the other nodes evict the entity before reloading the UserDetails
+        InOrder inOrder = inOrder(secondLevelCacheInvalidator, userDetailsCache);
+        inOrder.verify(secondLevelCacheInvalidator).evict(User.class, 101L);
+        inOrder.verify(userDetailsCache).evict("jake");
+        verify(tokenRevocationService).revokeUserTokens(101L);
+    }
+
+    /**
+     * Method under test: {@link UserService#revokeTokens(long)}
+     */
+    @Test
+    void revokeTokens_should_throwNoSuchElementFoundException_when_UserIsNotFound() {
+        when(userRepository.existsById(101L)).thenReturn(false);
+
+        assertThrows(NoSuchElementFoundException.class, () -> {
+            userService.revokeTokens(101L);
+        });
+
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    /**
+     * Method under test: {@link UserService#findByPrincipal(org.springframework.security.core.userdetails.UserDetails)}
+     */
+    @Test
+    void findByPrincipal_should_notQueryUser_when_PrincipalHasId() {
+        UserResponse response = userService.findByPrincipal(new UserDetailsImpl(2L, "jake", null, List.of()));
+
+        assertEquals(2L, response.getId());
+        assertEquals("jake", response.getUsername());
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Method under test: {@link UserService#findByPrincipal(org.springframework.security.core.userdetails.UserDetails)}
+     */
+    @Test
+    void findByPrincipal_should_loadUserByUsername_when_PrincipalHasNoId() {
+        User user = new User();
+        user.setId(2L);
+        user.setUsername("jake");
+        UserResponse userResponse = new UserResponse();
+        userResponse.setId(2L);
+        when(userRepository.findByUsername("jake")).thenReturn(Optional.of(user));
+        when(userResponseMapper.toDto(user)).thenReturn(userResponse);
+
+        UserResponse response = userService.findByPrincipal(
+                new org.springframework.security.core.userdetails.User("jake", "password", List.of()));
+
+        assertEquals(2L, response.getId());
+    }
 }
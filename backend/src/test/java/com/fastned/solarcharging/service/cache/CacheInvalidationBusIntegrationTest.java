@@ -0,0 +1,42 @@
+package com.fastned.solarcharging.service.cache;
+
+import com.fastned.solarcharging.IntegrationTest;
+import com.fastned.solarcharging.service.simulation.FleetSnapshotStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration Test of the cache invalidations published by another node, through the PostgreSQL container
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheInvalidationBusIntegrationTest extends IntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FleetSnapshotStore fleetSnapshotStore;
+
+    /**
+     * Method under test: {@link CacheInvalidationBus#dispatch(String)}
+     */
+    @Test
+    void notify_should_invalidateFleet_when_IsPublishedByAnotherNode() throws Exception {
+        final long userId = 987654L;
+        final long version = fleetSnapshotStore.version(userId);
+
+        // the listener may still be connecting, so the notification is repeated until it is applied
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while ( fleetSnapshotStore.version(userId) == version && System.currentTimeMillis() < deadline ) {
+            jdbcTemplate.query("select pg_notify(?, ?)", resultSet -> null, CacheInvalidationBus.CHANNEL, "other-node:FLEET:" + userId);
+            Thread.sleep(200);
+        }
+
+        assertTrue(fleetSnapshotStore.version(userId) > version);
+    }
+}
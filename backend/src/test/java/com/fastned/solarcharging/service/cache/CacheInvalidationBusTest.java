@@ -0,0 +1,109 @@
+package com.fastned.solarcharging.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for CacheInvalidationBus methods
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationBusTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ObjectProvider<CacheInvalidationListener> listeners;
+
+    @Mock
+    private CacheInvalidationListener fleetListener;
+
+    @Mock
+    private CacheInvalidationListener revokedTokenListener;
+
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @BeforeEach
+    void setup() {
+        cacheInvalidationBus = new CacheInvalidationBus(jdbcTemplate, new DataSourceProperties(), listeners);
+        ReflectionTestUtils.setField(cacheInvalidationBus, "enabled", true);
+    }
+
+    private String nodeId() {
+        return (String) ReflectionTestUtils.getField(cacheInvalidationBus, "nodeId");
+    }
+
+    /**
+     * Method under test: {@link CacheInvalidationBus#publish(InvalidationTopic, Object)}
+     */
+    @Test
+    void publish_should_notifyChannel_with_NodeTopicAndKey() {
+        cacheInvalidationBus.publish(InvalidationTopic.FLEET, 2L);
+
+        verify(jdbcTemplate).query(eq("select pg_notify(?, ?)"), any(ResultSetExtractor.class),
+                eq(CacheInvalidationBus.CHANNEL), eq(nodeId() + ":FLEET:2"));
+    }
+
+    /**
+     * Method under test: {@link CacheInvalidationBus#publishAll(InvalidationTopic, Collection)}
+     */
+    @Test
+    void publishAll_should_notifyChannel_with_SingleStatement() {
+        cacheInvalidationBus.publishAll(InvalidationTopic.SOLAR_GRID_NAME, List.of("name:delft", "name:utrecht"));
+
+        verify(jdbcTemplate).query(eq("select count(pg_notify(?, ? || k)) from unnest(?) k"),
+                any(PreparedStatementSetter.class), any(ResultSetExtractor.class));
+    }
+
+    /**
+     * Method under test: {@link CacheInvalidationBus#publishAll(InvalidationTopic, Collection)}
+     */
+    @Test
+    void publishAll_should_notNotify_when_KeysAreEmpty() {
+        cacheInvalidationBus.publishAll(InvalidationTopic.SOLAR_GRID_NAME, List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Method under test: {@link CacheInvalidationBus#dispatch(String)}
+     */
+    @Test
+    void dispatch_should_invalidateListenersOfTopic_when_IsPublishedByAnotherNode() {
+        when(fleetListener.topic()).thenReturn(InvalidationTopic.FLEET);
+        when(revokedTokenListener.topic()).thenReturn(InvalidationTopic.REVOKED_TOKEN);
+        when(listeners.orderedStream()).thenAnswer(invocation -> Stream.of(fleetListener, revokedTokenListener));
+
+        cacheInvalidationBus.dispatch("other-node:REVOKED_TOKEN:user:2");
+
+        verify(revokedTokenListener).invalidateLocally("user:2");
+        verify(fleetListener, never()).invalidateLocally(any());
+    }
+
+    /**
+     * Method under test: {@link CacheInvalidationBus#dispatch(String)}
+     */
+    @Test
+    void dispatch_should_ignoreInvalidation_when_IsPublishedByThisNode() {
+        cacheInvalidationBus.dispatch(nodeId() + ":FLEET:2");
+        cacheInvalidationBus.dispatch("other-node:UNKNOWN:2");
+
+        verifyNoInteractions(listeners);
+    }
+}
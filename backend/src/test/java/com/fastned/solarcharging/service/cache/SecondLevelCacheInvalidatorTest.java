@@ -0,0 +1,99 @@
+package com.fastned.solarcharging.service.cache;
+
+import com.fastned.solarcharging.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for SecondLevelCacheInvalidator methods
+ */
+@ExtendWith(MockitoExtension.class)
+class SecondLevelCacheInvalidatorTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache cache;
+
+    private SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+
+    @BeforeEach
+    void setup() {
+        // built by hand, since the SessionFactory mock is an EntityManagerFactory as well
+        secondLevelCacheInvalidator = new SecondLevelCacheInvalidator(entityManagerFactory, cacheInvalidationBus);
+        lenient().when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        lenient().when(sessionFactory.getCache()).thenReturn(cache);
+    }
+
+    /**
+     * Method under test: {@link SecondLevelCacheInvalidator#evict(Class, Long)}
+     */
+    @Test
+    void evict_should_publishEntity_and_leaveLocalRegionsToHibernate() {
+        secondLevelCacheInvalidator.evict(User.class, 101L);
+
+        verify(cacheInvalidationBus).publish(InvalidationTopic.SECOND_LEVEL_CACHE, User.class.getName() + "#101");
+        verifyNoInteractions(cache);
+    }
+
+    /**
+     * Method under test: {@link SecondLevelCacheInvalidator#evictQueries()}
+     */
+    @Test
+    void evictQueries_should_evictQueryRegions_and_publish() {
+        secondLevelCacheInvalidator.evictQueries();
+
+        verify(cache).evictQueryRegions();
+        verify(cacheInvalidationBus).publish(InvalidationTopic.SECOND_LEVEL_CACHE, SecondLevelCacheInvalidator.QUERIES);
+    }
+
+    /**
+     * Method under test: {@link SecondLevelCacheInvalidator#invalidateLocally(String)}
+     */
+    @Test
+    void invalidateLocally_should_evictEntityCollectionsAndQueries_when_EntityIsPublished() {
+        secondLevelCacheInvalidator.invalidateLocally(User.class.getName() + "#101");
+
+        verify(cache).evictEntityData(User.class.getName(), 101L);
+        verify(cache).evictCollectionData();
+        verify(cache).evictQueryRegions();
+        verifyNoInteractions(cacheInvalidationBus);
+    }
+
+    /**
+     * Method under test: {@link SecondLevelCacheInvalidator#invalidateLocally(String)}
+     */
+    @Test
+    void invalidateLocally_should_evictQueriesOnly_when_QueriesArePublished() {
+        secondLevelCacheInvalidator.invalidateLocally(SecondLevelCacheInvalidator.QUERIES);
+
+        verify(cache).evictQueryRegions();
+        verify(cache, never()).evictEntityData(anyString(), any());
+        verify(cache, never()).evictCollectionData();
+    }
+
+    /**
+     * Method under test: {@link SecondLevelCacheInvalidator#invalidateAllLocally()}
+     */
+    @Test
+    void invalidateAllLocally_should_evictAllRegions() {
+        secondLevelCacheInvalidator.invalidateAllLocally();
+
+        verify(cache).evictAllRegions();
+    }
+}
@@ -0,0 +1,250 @@
+package com.fastned.solarcharging.service.ingestion;
+
+import com.fastned.solarcharging.dto.request.SolarGridRequest;
+import com.fastned.solarcharging.dto.response.CommandResponse;
+import com.fastned.solarcharging.dto.response.IngestionJobResponse;
+import com.fastned.solarcharging.dto.response.SolarGridResponse;
+import com.fastned.solarcharging.dto.response.UserResponse;
+import com.fastned.solarcharging.exception.ElementAlreadyExistsException;
+import com.fastned.solarcharging.exception.NoSuchElementFoundException;
+import com.fastned.solarcharging.exception.ServiceBusyException;
+import com.fastned.solarcharging.service.NetworkService;
+import com.fastned.solarcharging.service.SolarGridBulkLoader;
+import com.fastned.solarcharging.service.SolarGridService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Test for IngestionJobService methods
+ */
+@ExtendWith(MockitoExtension.class)
+class IngestionJobServiceTest {
+
+    @InjectMocks
+    private IngestionJobService ingestionJobService;
+
+    @Mock
+    private NetworkService networkService;
+
+    @Mock
+    private SolarGridService solarGridService;
+
+    @Mock
+    private SolarGridBulkLoader solarGridBulkLoader;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private Clock clock;
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2023-03-01T10:00:00Z"));
+
+    private final UserResponse user = new UserResponse();
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(ingestionJobService, "workers", 1);
+        ReflectionTestUtils.setField(ingestionJobService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(ingestionJobService, "maxJobs", 10);
+        ReflectionTestUtils.setField(ingestionJobService, "jobTtlMinutes", 60L);
+        ingestionJobService.init();
+
+        when(clock.instant()).thenAnswer(invocation -> now.get());
+        user.setId(2L);
+        user.setUsername("jake");
+    }
+
+    @AfterEach
+    void shutdown() {
+        ingestionJobService.shutdown();
+    }
+
+    private static SolarGridRequest request(String name, int age) {
+        SolarGridRequest request = new SolarGridRequest();
+        request.setName(name);
+        request.setAge(age);
+        return request;
+    }
+
+    private static SolarGridResponse response(String name, int age) {
+        SolarGridResponse response = new SolarGridResponse();
+        response.setName(name);
+        response.setAge(age);
+        response.setPowerOutput(20.0);
+        return response;
+    }
+
+    private IngestionJobResponse awaitFinished(String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            IngestionJobResponse job = ingestionJobService.findById(id, 2L);
+            if ( job.getFinishedAt() != null )
+                return job;
+            Thread.sleep(10);
+        }
+        return fail("The job did not finish");
+    }
+
+    /**
+     * Method under test: {@link IngestionJobService#submitList(List, UserResponse)}
+     */
+    @Test
+    void submitList_should_reportRowsParsedPersistedAndRejected_when_IsCompleted() throws InterruptedException {
+        when(networkService.create(any())).thenReturn(new CommandResponse(7L));
+        when(solarGridService.createAll(any())).thenReturn(List.of(response("Delft", 100)));
+
+        IngestionJobResponse queued = ingestionJobService.submitList(List.of(request("Delft", 100), request("DELFT", 200)), user);
+        IngestionJobResponse job = awaitFinished(queued.getId());
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(7L, job.getNetworkId());
+        assertEquals(2, job.getRowsParsed());
+        assertEquals(1, job.getRowsPersisted());
+        assertEquals(1, job.getRowsRejected());
+    }
+
+    /**
+     * Method under test: {@link IngestionJobService#submitList(List, UserResponse)}
+     */
+    @Test
+    void submitList_should_skipAndCountName_when_IsTakenConcurrently() throws InterruptedException {
+        List<SolarGridRequest> requests = List.of(request("Delft", 100), request("Utrecht", 200));
+        when(networkService.create(any())).thenReturn(new CommandResponse(7L));
+        when(solarGridService.createAll(any())).thenThrow(new ElementAlreadyExistsException("uc_solar_grid_lower_name"));
+        when(solarGridService.createAll(any(), eq(false))).thenReturn(List.of(response("Delft", 100)));
+
+        IngestionJobResponse job = awaitFinished(ingestionJobService.submitList(requests, user).getId());
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(1, job.getRowsPersisted());
+        assertEquals(1, job.getRowsRejected());
+    }
+
+    /**
+     * Method under test: {@link IngestionJobService#submitList(List, UserResponse)}
+     */
+    @Test
+    void submitList_should_reportError_when_IngestionFails() throws InterruptedException {
+        when(networkService.create(any())).thenThrow(new IllegalStateException("Network is not valid"));
+
+        IngestionJobResponse job = awaitFinished(ingestionJobService.submitList(List.of(request("Delft", 100)), user).getId());
+
+        assertEquals("FAILED", job.getStatus());
+        assertEquals("Network is not valid", job.getError());
+    }
+
+    /**
+     * Method under test: {@link IngestionJobService#submitList(List, UserResponse)}
+     */
+    @Test
+    void submitList_should_throwServiceBusyException_when_WorkersAndQueueAreFull() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(networkService.create(any())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new CommandResponse(7L);
+        });
+
+        try {
+            ingestionJobService.submitList(List.of(request("Delft", 100)), user);
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            ingestionJobService.submitList(List.of(request("Utrecht", 100)), user);
+
+            assertThrows(ServiceBusyException.class, () -> {
+                ingestionJobService.submitList(List.of(request("Leiden", 100)), user);
+            });
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Method under test: {@link IngestionJobService#findById(String, long)}
+     */
+    @Test
+    void findById_should_throwNoSuchElementFoundException_when_JobIsOfAnotherUser() throws InterruptedException {
+        when(networkService.create(any())).thenReturn(new CommandResponse(7L));
+
+        String id = awaitFinished(ingestionJobService.submitList(List.of(request("Delft", 100)), user).getId()).getId();
+
+        assertThrows(NoSuchElementFoundException.class, () -> {
+            ingestionJobService.findById(id, 3L);
+        });
+    }
+
+    /**
+     * Method under test: {@link IngestionJobService#findById(String, long)}
+     */
+    @Test
+    void findById_should_throwNoSuchElementFoundException_when_JobIsExpired() throws InterruptedException {
+        when(networkService.create(any())).thenReturn(new CommandResponse(7L));
+
+        String id = awaitFinished(ingestionJobService.submitList(List.of(request("Delft", 100)), user).getId()).getId();
+        now.set(now.get().plus(Duration.ofMinutes(61)));
+
+        assertThrows(NoSuchElementFoundException.class, () -> {
+            ingestionJobService.findById(id, 2L);
+        });
+    }
+
+    /**
+     * Method under test: {@link IngestionJobService#shutdown()}
+     */
+    @Test
+    void shutdown_should_deleteTemporaryFile_when_FileIngestionIsStillQueued() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(networkService.create(any())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new CommandResponse(7L);
+        });
+
+        AtomicReference<Path> temporaryFile = new AtomicReference<>();
+        MultipartFile file = mock(MultipartFile.class);
+        doAnswer(invocation -> {
+            temporaryFile.set(invocation.getArgument(0));
+            return null;
+        }).when(file).transferTo(any(Path.class));
+
+        try {
+            ingestionJobService.submitList(List.of(request("Delft", 100)), user);
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            ingestionJobService.submitFile(file, false, user, null);
+            assertTrue(Files.exists(temporaryFile.get()));
+
+            ingestionJobService.shutdown();
+
+            assertFalse(Files.exists(temporaryFile.get()));
+        } finally {
+            release.countDown();
+            Files.deleteIfExists(temporaryFile.get());
+        }
+    }
+}
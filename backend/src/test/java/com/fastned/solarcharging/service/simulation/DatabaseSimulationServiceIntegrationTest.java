@@ -0,0 +1,100 @@
+package com.fastned.solarcharging.service.simulation;
+
+import com.fastned.solarcharging.IntegrationTest;
+import com.fastned.solarcharging.exception.NoSuchElementFoundException;
+import com.fastned.solarcharging.repository.SolarGridDailyEnergy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Integration Test of the simulations computed inside the PostgreSQL container, against SolarSimulationEngine
+ */
+class DatabaseSimulationServiceIntegrationTest extends IntegrationTest {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Ages of the SolarGrids of the user 2 (jake), in V5__add_solar_grids_data.sql
+     */
+    private static final int[] SEED_AGES = {949, 823};
+
+    @Autowired
+    private DatabaseSimulationService databaseSimulationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Method under test: solar_grid_cumulative_energy, in V10__solar_grid_energy_function.sql
+     */
+    @ParameterizedTest
+    @ValueSource(longs = {-1, 0, 60, 61, 62, 424, 425, 426, 823, 949, 5000, 9124, 9125, 20000})
+    void cumulativeEnergy_should_matchEngine(long age) {
+        Double energy = jdbcTemplate.queryForObject("select solar_grid_cumulative_energy(?)", Double.class, age);
+
+        assertEquals(SolarSimulationEngine.cumulativeEnergy(age), energy, DELTA);
+    }
+
+    /**
+     * Method under test: {@link DatabaseSimulationService#totalEnergyOverDays(long, int)}
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 58, 320, 10000, Integer.MAX_VALUE})
+    void totalEnergyOverDays_should_matchEngine(int days) {
+        assertEquals(SolarSimulationEngine.totalEnergyOverDays(SEED_AGES, days),
+                databaseSimulationService.totalEnergyOverDays(2L, days), DELTA);
+    }
+
+    /**
+     * Method under test: {@link DatabaseSimulationService#totalEnergyOverDays(long, int)}
+     */
+    @Test
+    void totalEnergyOverDays_should_returnZero_when_UserHasNoSolarGrids() {
+        jdbcTemplate.update("INSERT INTO network (id, name, user_id) VALUES (nextval('sequence_network'), 'Empty Network', 1)");
+
+        assertEquals(0, databaseSimulationService.totalEnergyOverDays(1L, 320));
+    }
+
+    /**
+     * Method under test: {@link DatabaseSimulationService#totalEnergyOverDays(long, int)}
+     */
+    @Test
+    void totalEnergyOverDays_should_throwNoSuchElementFoundException_when_UserHasNoNetwork() {
+        // as the simulation in memory, through FleetSnapshotStore
+        assertThrows(NoSuchElementFoundException.class, () -> {
+            databaseSimulationService.totalEnergyOverDays(999L, 320);
+        });
+    }
+
+    /**
+     * Method under test: {@link DatabaseSimulationService#outputCurve(long, int, int, int)}
+     */
+    @Test
+    void outputCurve_should_throwNoSuchElementFoundException_when_UserHasNoNetwork() {
+        assertThrows(NoSuchElementFoundException.class, () -> {
+            databaseSimulationService.outputCurve(999L, 0, 320, 160);
+        });
+    }
+
+    /**
+     * Method under test: {@link DatabaseSimulationService#outputCurve(long, int, int, int)}
+     */
+    @Test
+    void outputCurve_should_returnEachDayOfSeries() {
+        List<SolarGridDailyEnergy> curve = databaseSimulationService.outputCurve(2L, 0, 320, 160);
+
+        assertEquals(3, curve.size());
+        for (int i = 0; i < curve.size(); i++) {
+            assertEquals(i * 160, curve.get(i).getDay());
+            assertEquals(SolarSimulationEngine.totalEnergyOverDays(SEED_AGES, i * 160), curve.get(i).getEnergy(), DELTA);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.fastned.solarcharging.service.simulation;
+
+import com.fastned.solarcharging.exception.NoSuchElementFoundException;
+import com.fastned.solarcharging.repository.NetworkRepository;
+import com.fastned.solarcharging.repository.SolarGridAgeCount;
+import com.fastned.solarcharging.repository.SolarGridRepository;
+import com.fastned.solarcharging.service.cache.CacheInvalidationBus;
+import com.fastned.solarcharging.service.cache.InvalidationTopic;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for FleetSnapshotStore methods
+ */
+@ExtendWith(MockitoExtension.class)
+class FleetSnapshotStoreTest {
+
+    @InjectMocks
+    private FleetSnapshotStore fleetSnapshotStore;
+
+    @Mock
+    private SolarGridRepository solarGridRepository;
+
+    @Mock
+    private NetworkRepository networkRepository;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(fleetSnapshotStore, "maxSnapshots", 100L);
+        ReflectionTestUtils.setField(fleetSnapshotStore, "maxVersions", 100L);
+        ReflectionTestUtils.invokeMethod(fleetSnapshotStore, "init");
+    }
+
+    private static SolarGridAgeCount row(int age, long total) {
+        SolarGridAgeCount row = mock(SolarGridAgeCount.class);
+        when(row.getAge()).thenReturn(age);
+        when(row.getTotal()).thenReturn(total);
+        return row;
+    }
+
+    /**
+     * Method under test: {@link FleetSnapshotStore#get(long)}
+     */
+    @Test
+    void get_should_loadHistogram_when_IsFound() {
+        List<SolarGridAgeCount> rows = List.of(row(823, 1L), row(949, 2L));
+        when(solarGridRepository.countByAgeForUserId(2L)).thenReturn(rows);
+
+        FleetSnapshot snapshot = fleetSnapshotStore.get(2L);
+
+        assertEquals(3, snapshot.size());
+        assertArrayEquals(new int[]{823, 949}, snapshot.histogram().ages());
+        assertArrayEquals(new long[]{1L, 2L}, snapshot.histogram().counts());
+    }
+
+    /**
+     * Method under test: {@link FleetSnapshotStore#get(long)}
+     */
+    @Test
+    void get_should_reuseSnapshot_until_IsInvalidated() {
+        when(solarGridRepository.countByAgeForUserId(2L)).thenReturn(List.of());
+        when(networkRepository.existsByUserId(2L)).thenReturn(true);
+
+        FleetSnapshot first = fleetSnapshotStore.get(2L);
+        assertSame(first, fleetSnapshotStore.get(2L));
+
+        fleetSnapshotStore.invalidate(2L);
+
+        assertNotSame(first, fleetSnapshotStore.get(2L));
+        verify(solarGridRepository, times(2)).countByAgeForUserId(2L);
+        verify(cacheInvalidationBus).publish(InvalidationTopic.FLEET, 2L);
+    }
+
+    /**
+     * Method under test: {@link FleetSnapshotStore#invalidateLocally(String)}
+     */
+    @Test
+    void invalidateLocally_should_bumpVersion_and_notPublish() {
+        long version = fleetSnapshotStore.version(2L);
+
+        fleetSnapshotStore.invalidateLocally("2");
+
+        assertTrue(fleetSnapshotStore.version(2L) > version);
+        verifyNoInteractions(cacheInvalidationBus);
+    }
+
+    /**
+     * Method under test: {@link FleetSnapshotStore#invalidateAllLocally()}
+     */
+    @Test
+    void invalidateAllLocally_should_assignGreaterVersions_to_AllUsers() {
+        long version2 = fleetSnapshotStore.version(2L);
+        long version3 = fleetSnapshotStore.version(3L);
+
+        fleetSnapshotStore.invalidateAllLocally();
+
+        assertTrue(fleetSnapshotStore.version(2L) > Math.max(version2, version3));
+        assertTrue(fleetSnapshotStore.version(3L) > Math.max(version2, version3));
+    }
+
+    /**
+     * Method under test: {@link FleetSnapshotStore#get(long)}
+     */
+    @Test
+    void get_should_throwNoSuchElementFoundException_when_NetworkIsNotFound() {
+        when(solarGridRepository.countByAgeForUserId(2L)).thenReturn(List.of());
+        when(networkRepository.existsByUserId(2L)).thenReturn(false);
+
+        assertThrows(NoSuchElementFoundException.class, () -> {
+            fleetSnapshotStore.get(2L);
+        });
+    }
+}
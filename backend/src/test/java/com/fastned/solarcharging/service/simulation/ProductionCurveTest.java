@@ -0,0 +1,43 @@
+package com.fastned.solarcharging.service.simulation;
+
+import com.fastned.solarcharging.service.util.SolarGridUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit Test for ProductionCurve methods
+ */
+class ProductionCurveTest {
+
+    private static final double DELTA = 1e-4;
+
+    /**
+     * Method under test: {@link ProductionCurve#energyAt(int)}
+     */
+    @Test
+    void energyAt_should_matchEngine_when_MovingForward() {
+        AgeHistogram histogram = new AgeHistogram(new int[]{0, 10, 60, 61, 424, 823, 949, 9000, 9124, 9125, 12000},
+                new long[]{4, 1, 2, 3, 1, 2, 5, 1, 7, 2, 1});
+        ProductionCurve curve = new ProductionCurve(histogram);
+
+        for (int days = 0; days <= SolarGridUtils.LIFETIME_IN_DAYS + 400; days += 37) {
+            assertEquals(SolarSimulationEngine.totalEnergyOverDays(histogram, days), curve.energyAt(days), DELTA);
+        }
+        assertEquals(SolarSimulationEngine.totalEnergyOverDays(histogram, 50000), curve.energyAt(50000), DELTA);
+    }
+
+    /**
+     * Method under test: {@link ProductionCurve#energyAt(int)}
+     */
+    @Test
+    void energyAt_should_throwIllegalArgumentException_when_MovingBackward() {
+        ProductionCurve curve = new ProductionCurve(new AgeHistogram(new int[]{949}, new long[]{1}));
+        curve.energyAt(100);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            curve.energyAt(99);
+        });
+    }
+}
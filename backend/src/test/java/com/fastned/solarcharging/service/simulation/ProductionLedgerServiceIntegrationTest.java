@@ -0,0 +1,158 @@
+package com.fastned.solarcharging.service.simulation;
+
+import com.fastned.solarcharging.IntegrationTest;
+import com.fastned.solarcharging.dto.request.SolarGridRequest;
+import com.fastned.solarcharging.dto.response.DailyProductionResponse;
+import com.fastned.solarcharging.dto.response.ProducedOutputResponse;
+import com.fastned.solarcharging.service.SolarGridService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Integration Test of the production ledger materialized inside the PostgreSQL container, against SolarSimulationEngine
+ */
+class ProductionLedgerServiceIntegrationTest extends IntegrationTest {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Ages of the SolarGrids of the user 2 (jake), in V5__add_solar_grids_data.sql
+     */
+    private static final int[] SEED_AGES = {949, 823};
+
+    private static final LocalDate CREATED_AT = LocalDate.of(2023, 3, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SolarGridService solarGridService;
+
+    @BeforeEach
+    void createSolarGridsOnFirstDay() {
+        jdbcTemplate.update("UPDATE solar_grid SET created_at = ?", Timestamp.valueOf(CREATED_AT.atStartOfDay()));
+    }
+
+    private ProductionLedgerService ledgerOn(LocalDate today, int compactAfterDays) {
+        final ProductionLedgerService productionLedgerService = new ProductionLedgerService(jdbcTemplate,
+                Clock.fixed(today.atTime(10, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        ReflectionTestUtils.setField(productionLedgerService, "maxCatchUpDays", 31);
+        ReflectionTestUtils.setField(productionLedgerService, "compactAfterDays", compactAfterDays);
+        ReflectionTestUtils.setField(productionLedgerService, "retentionDays", 1830);
+        return productionLedgerService;
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#materialize()}
+     */
+    @Test
+    void materialize_should_storeTheEnergyOfEachFinishedDay() {
+        final ProductionLedgerService productionLedgerService = ledgerOn(CREATED_AT.plusDays(3), 90);
+
+        productionLedgerService.materialize();
+
+        List<DailyProductionResponse> days = productionLedgerService.dailyProduction(2L, CREATED_AT, CREATED_AT.plusDays(10));
+        assertEquals(3, days.size());
+        for (int i = 0; i < days.size(); i++) {
+            assertEquals(CREATED_AT.plusDays(i), days.get(i).getDate());
+            assertEquals(SolarSimulationEngine.totalEnergyOverDays(SEED_AGES, i + 1) - SolarSimulationEngine.totalEnergyOverDays(SEED_AGES, i),
+                    days.get(i).getOutputInKWh(), DELTA);
+        }
+
+        ProducedOutputResponse produced = productionLedgerService.producedSoFar(2L);
+        assertEquals(CREATED_AT.plusDays(2), produced.getUntil());
+        assertEquals(SolarSimulationEngine.totalEnergyOverDays(SEED_AGES, 3), produced.getTotalOutputInKWh(), DELTA);
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#materialize()}
+     */
+    @Test
+    void materialize_should_beIdempotent_when_RunTwiceOnTheSameDay() {
+        final ProductionLedgerService productionLedgerService = ledgerOn(CREATED_AT.plusDays(3), 90);
+
+        productionLedgerService.materialize();
+        productionLedgerService.materialize();
+
+        assertEquals(SolarSimulationEngine.totalEnergyOverDays(SEED_AGES, 3),
+                productionLedgerService.producedSoFar(2L).getTotalOutputInKWh(), DELTA);
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#materialize()}
+     */
+    @Test
+    void materialize_should_compactOldDaysIntoMonths_and_keepTheOutputSoFar() {
+        // March and April are materialized in two runs, then March is compacted
+        final ProductionLedgerService productionLedgerService = ledgerOn(LocalDate.of(2023, 5, 2), 31);
+
+        productionLedgerService.materialize();
+        productionLedgerService.materialize();
+
+        assertEquals(0, productionLedgerService.dailyProduction(2L, CREATED_AT, LocalDate.of(2023, 3, 31)).size());
+        assertEquals(31, productionLedgerService.dailyProduction(2L, LocalDate.of(2023, 4, 1), LocalDate.of(2023, 5, 1)).size());
+
+        Double march = jdbcTemplate.queryForObject(
+                "SELECT energy_kwh FROM production_ledger_monthly WHERE network_id = 1 AND production_month = ?", Double.class, CREATED_AT);
+        assertEquals(SolarSimulationEngine.totalEnergyOverDays(SEED_AGES, 31), march, DELTA);
+
+        ProducedOutputResponse produced = productionLedgerService.producedSoFar(2L);
+        assertEquals(LocalDate.of(2023, 5, 1), produced.getUntil());
+        assertEquals(SolarSimulationEngine.totalEnergyOverDays(SEED_AGES, 62), produced.getTotalOutputInKWh(), DELTA);
+    }
+
+    private static SolarGridRequest request(String name, int age, long networkId) {
+        SolarGridRequest request = new SolarGridRequest();
+        request.setName(name);
+        request.setAge(age);
+        request.setIdNetwork(networkId);
+        return request;
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#materialize()}
+     */
+    @Test
+    void materialize_should_includeSolarGrids_when_CreatedThroughSolarGridService() {
+        final Long networkId = jdbcTemplate.queryForObject(
+                "INSERT INTO network (id, name, user_id) VALUES (nextval('sequence_network'), 'Admin Network', 1) RETURNING id", Long.class);
+        final long createdId = solarGridService.create(request("Rotterdam", 100, networkId)).getId();
+        solarGridService.createAll(List.of(request("Eindhoven", 500, networkId)));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM solar_grid WHERE created_at IS NULL", Long.class));
+
+        // the ledger starts on the day the SolarGrids were created, with the seed ones created that day as well
+        final LocalDate createdOn = jdbcTemplate.queryForObject("SELECT CAST(created_at AS DATE) FROM solar_grid WHERE id = ?",
+                LocalDate.class, createdId);
+        jdbcTemplate.update("UPDATE solar_grid SET created_at = ?", Timestamp.valueOf(createdOn.atStartOfDay()));
+        final ProductionLedgerService productionLedgerService = ledgerOn(createdOn.plusDays(1), 90);
+
+        productionLedgerService.materialize();
+
+        List<DailyProductionResponse> days = productionLedgerService.dailyProduction(1L, createdOn, createdOn);
+        assertEquals(1, days.size());
+        assertEquals(SolarSimulationEngine.totalEnergyOverDays(new int[]{100, 500}, 1), days.get(0).getOutputInKWh(), DELTA);
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#producedSoFar(long)}
+     */
+    @Test
+    void producedSoFar_should_returnZero_when_UserHasNoNetworks() {
+        ProducedOutputResponse produced = ledgerOn(CREATED_AT.plusDays(3), 90).producedSoFar(999L);
+
+        assertEquals(null, produced.getUntil());
+        assertEquals(0, produced.getTotalOutputInKWh());
+    }
+}
@@ -0,0 +1,156 @@
+package com.fastned.solarcharging.service.simulation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static com.fastned.solarcharging.service.simulation.ProductionLedgerService.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Test for ProductionLedgerService methods
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductionLedgerServiceTest {
+
+    private static final Instant NOW = Instant.parse("2023-06-15T10:00:00Z");
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 6, 15);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductionLedgerService productionLedgerService;
+
+    @BeforeEach
+    void setup() {
+        productionLedgerService = new ProductionLedgerService(jdbcTemplate, Clock.fixed(NOW, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(productionLedgerService, "maxCatchUpDays", 31);
+        ReflectionTestUtils.setField(productionLedgerService, "compactAfterDays", 90);
+        ReflectionTestUtils.setField(productionLedgerService, "retentionDays", 1830);
+    }
+
+    private void lock(boolean acquired) {
+        when(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class, LEDGER_LOCK_KEY)).thenReturn(acquired);
+    }
+
+    /**
+     * Stubs the last day found among the recent days of the ledger
+     */
+    private void lastRecentDay(LocalDate day) {
+        when(jdbcTemplate.queryForObject(LAST_DAY_SINCE, LocalDate.class, TODAY.minusDays(31))).thenReturn(day);
+    }
+
+    private void verifyMaterializedDays(int days) {
+        verify(jdbcTemplate, times(days)).update(eq(MATERIALIZE_DAY), any(), any(), any(), any());
+    }
+
+    private void verifyMaterialized(LocalDate day) {
+        verify(jdbcTemplate).update(MATERIALIZE_DAY, day, day, day, day);
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#materialize()}
+     */
+    @Test
+    void materialize_should_storeEachFinishedDay_when_LedgerIsBehind() {
+        lock(true);
+        lastRecentDay(TODAY.minusDays(3));
+
+        productionLedgerService.materialize();
+
+        verifyMaterializedDays(2);
+        verifyMaterialized(TODAY.minusDays(2));
+        verifyMaterialized(TODAY.minusDays(1));
+        verify(jdbcTemplate).update(COMPACT, LocalDate.of(2023, 3, 1));
+        verify(jdbcTemplate).update(DELETE_EXPIRED, LocalDate.of(2018, 6, 1));
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#materialize()}
+     */
+    @Test
+    void materialize_should_onlyCompact_when_LedgerIsUpToDate() {
+        lock(true);
+        lastRecentDay(TODAY.minusDays(1));
+
+        productionLedgerService.materialize();
+
+        verifyMaterializedDays(0);
+        verify(jdbcTemplate).update(eq(COMPACT), any(LocalDate.class));
+        verify(jdbcTemplate).update(eq(DELETE_EXPIRED), any(LocalDate.class));
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#materialize()}
+     */
+    @Test
+    void materialize_should_startAtFirstProductionDay_when_LedgerIsEmpty() {
+        lock(true);
+        lastRecentDay(null);
+        when(jdbcTemplate.queryForObject(LAST_DAY, LocalDate.class)).thenReturn(null);
+        when(jdbcTemplate.queryForObject(FIRST_PRODUCTION_DAY, LocalDate.class)).thenReturn(TODAY.minusDays(5));
+
+        productionLedgerService.materialize();
+
+        verifyMaterializedDays(5);
+        verifyMaterialized(TODAY.minusDays(5));
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#materialize()}
+     */
+    @Test
+    void materialize_should_stopAtMaxCatchUpDays_and_notCompact_when_LedgerIsFarBehind() {
+        lock(true);
+        lastRecentDay(null);
+        when(jdbcTemplate.queryForObject(LAST_DAY, LocalDate.class)).thenReturn(TODAY.minusDays(200));
+
+        productionLedgerService.materialize();
+
+        verifyMaterializedDays(31);
+        verifyMaterialized(TODAY.minusDays(199));
+        verifyMaterialized(TODAY.minusDays(169));
+        verify(jdbcTemplate, never()).update(eq(COMPACT), any(LocalDate.class));
+        verify(jdbcTemplate, never()).update(eq(DELETE_EXPIRED), any(LocalDate.class));
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#materialize()}
+     */
+    @Test
+    void materialize_should_doNothing_when_ThereAreNoSolarGrids() {
+        lock(true);
+        lastRecentDay(null);
+
+        productionLedgerService.materialize();
+
+        verify(jdbcTemplate).queryForObject(LAST_DAY, LocalDate.class);
+        verify(jdbcTemplate).queryForObject(FIRST_PRODUCTION_DAY, LocalDate.class);
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Method under test: {@link ProductionLedgerService#materialize()}
+     */
+    @Test
+    void materialize_should_skip_when_AnotherNodeHoldsTheLock() {
+        lock(false);
+
+        productionLedgerService.materialize();
+
+        verify(jdbcTemplate).queryForObject(TRY_LOCK, Boolean.class, LEDGER_LOCK_KEY);
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+}
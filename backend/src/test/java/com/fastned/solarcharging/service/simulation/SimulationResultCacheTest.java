@@ -0,0 +1,61 @@
+package com.fastned.solarcharging.service.simulation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.fastned.solarcharging.service.simulation.SimulationResultCache.Endpoint.NETWORK;
+import static com.fastned.solarcharging.service.simulation.SimulationResultCache.Endpoint.OUTPUT;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for SimulationResultCache methods
+ */
+@ExtendWith(MockitoExtension.class)
+class SimulationResultCacheTest {
+
+    @Mock
+    private FleetSnapshotStore fleetSnapshotStore;
+
+    private SimulationResultCache simulationResultCache;
+
+    @BeforeEach
+    void setup() {
+        simulationResultCache = new SimulationResultCache(fleetSnapshotStore, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(simulationResultCache, "maxWeight", 100L);
+        ReflectionTestUtils.invokeMethod(simulationResultCache, "init");
+    }
+
+    /**
+     * Method under test: {@link SimulationResultCache#get(long, SimulationResultCache.Endpoint, int, long, java.util.function.Supplier)}
+     */
+    @Test
+    void get_should_computeOnce_until_VersionChanges() {
+        AtomicInteger simulations = new AtomicInteger();
+
+        assertEquals(1.0, simulationResultCache.get(2L, OUTPUT, 320, 0, () -> (double) simulations.incrementAndGet()));
+        assertEquals(1.0, simulationResultCache.get(2L, OUTPUT, 320, 0, () -> (double) simulations.incrementAndGet()));
+        assertEquals(2.0, simulationResultCache.get(2L, NETWORK, 320, 0, () -> (double) simulations.incrementAndGet()));
+        assertEquals(3.0, simulationResultCache.get(2L, OUTPUT, 320, 1, () -> (double) simulations.incrementAndGet()));
+    }
+
+    /**
+     * Method under test: {@link SimulationResultCache#matches(String, String)}
+     */
+    @Test
+    void matches_should_compareEntityTags_when_HeaderIsPresent() {
+        String etag = simulationResultCache.etag(2L, 5L);
+
+        assertTrue(SimulationResultCache.matches(etag, etag));
+        assertTrue(SimulationResultCache.matches("\"other\", W/" + etag, etag));
+        assertTrue(SimulationResultCache.matches("*", etag));
+        assertFalse(SimulationResultCache.matches(simulationResultCache.etag(2L, 4L), etag));
+        assertFalse(SimulationResultCache.matches(null, etag));
+    }
+}
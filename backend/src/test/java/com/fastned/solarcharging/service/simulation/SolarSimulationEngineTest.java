@@ -0,0 +1,84 @@
+package com.fastned.solarcharging.service.simulation;
+
+import com.fastned.solarcharging.service.util.SolarGridUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit Test for SolarSimulationEngine methods
+ */
+class SolarSimulationEngineTest {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Sums the daily energy of a SolarGrid day by day, used as reference for the closed-form calculation
+     */
+    private static double energyDayByDay(int age, int days) {
+        double total = 0;
+        for (int d = age; d < age + days; d++) {
+            if ( d < SolarGridUtils.LIFETIME_IN_DAYS )
+                total += SolarGridUtils.calculatePowerOutput(d) * SolarGridUtils.FULL_SUN_HOURS_PER_DAY;
+        }
+        return total;
+    }
+
+    /**
+     * Method under test: {@link SolarSimulationEngine#energyOverDays(int, int)}
+     */
+    @ParameterizedTest
+    @CsvSource({"0,1", "0,60", "0,61", "0,62", "0,425", "59,3", "60,365", "61,365", "424,2",
+            "823,320", "949,58", "1000,10000", "9000,200", "9124,1", "9125,100"})
+    void energyOverDays_should_matchDayByDaySum(int age, int days) {
+        assertEquals(energyDayByDay(age, days), SolarSimulationEngine.energyOverDays(age, days), DELTA);
+    }
+
+    /**
+     * Method under test: {@link SolarSimulationEngine#energyOverDays(int, int)}
+     */
+    @Test
+    void energyOverDays_should_returnZero_when_OnHoldOrBrokenDown() {
+        assertEquals(0, SolarSimulationEngine.energyOverDays(0, SolarGridUtils.DAYS_POWER_PRODUCTION_ON_HOLD + 1));
+        assertEquals(0, SolarSimulationEngine.energyOverDays(SolarGridUtils.LIFETIME_IN_DAYS, 365));
+    }
+
+    /**
+     * Method under test: {@link SolarSimulationEngine#cumulativeEnergy(long)}
+     */
+    @Test
+    void cumulativeEnergy_should_matchLifetimeTables() {
+        for (int age = 0; age <= SolarGridUtils.LIFETIME_IN_DAYS + 1; age++) {
+            assertEquals(SolarGridUtils.energyBetween(0, age), SolarSimulationEngine.cumulativeEnergy(age), DELTA);
+        }
+    }
+
+    /**
+     * Method under test: {@link SolarSimulationEngine#totalEnergyOverDays(int[], int)}
+     */
+    @Test
+    void totalEnergyOverDays_should_sumAllSolarGrids() {
+        int[] ages = {949, 823, 10, 9200};
+
+        double expected = 0;
+        for (int age : ages) {
+            expected += energyDayByDay(age, 320);
+        }
+
+        assertEquals(expected, SolarSimulationEngine.totalEnergyOverDays(ages, 320), DELTA);
+    }
+
+    /**
+     * Method under test: {@link SolarSimulationEngine#totalEnergyOverDays(AgeHistogram, int)}
+     */
+    @Test
+    void totalEnergyOverDays_should_multiplyByCount_when_GroupedByAge() {
+        AgeHistogram histogram = new AgeHistogram(new int[]{823, 949}, new long[]{2, 3});
+
+        double expected = SolarSimulationEngine.totalEnergyOverDays(new int[]{823, 823, 949, 949, 949}, 320);
+
+        assertEquals(expected, SolarSimulationEngine.totalEnergyOverDays(histogram, 320), DELTA);
+    }
+}
@@ -0,0 +1,76 @@
+package com.fastned.solarcharging.service.util;
+
+import com.fastned.solarcharging.dto.request.SolarGridRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for SolarGridFileReader methods
+ */
+class SolarGridFileReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<SolarGridRequest> readAll(String json) throws IOException {
+        List<SolarGridRequest> solarGrids = new ArrayList<>();
+        try (SolarGridFileReader reader = new SolarGridFileReader(objectMapper.getFactory().createParser(json))) {
+            reader.forEachRemaining(solarGrids::add);
+        }
+        return solarGrids;
+    }
+
+    /**
+     * Method under test: {@link SolarGridFileReader#next()}
+     */
+    @Test
+    void next_should_readSolarGrids_when_FieldsHaveAnyCase() throws IOException {
+        List<SolarGridRequest> solarGrids = readAll("[{\"name\": \"Amsterdam\", \"age\": 854}, {\"Name\": \"Utrecht\", \"AGE\": 12}]");
+
+        assertEquals(2, solarGrids.size());
+        assertEquals("Amsterdam", solarGrids.get(0).getName());
+        assertEquals(854, solarGrids.get(0).getAge());
+        assertEquals("Utrecht", solarGrids.get(1).getName());
+        assertEquals(12, solarGrids.get(1).getAge());
+    }
+
+    /**
+     * Method under test: {@link SolarGridFileReader#next()}
+     */
+    @Test
+    void next_should_skipUnknownFieldsAndElements_when_AreNotSolarGrids() throws IOException {
+        List<SolarGridRequest> solarGrids = readAll("[1, \"x\", [{\"name\": \"Nested\"}], {\"name\": \"Delft\", \"info\": {\"age\": 1}, \"age\": 70}]");
+
+        assertEquals(1, solarGrids.size());
+        assertEquals("Delft", solarGrids.get(0).getName());
+        assertEquals(70, solarGrids.get(0).getAge());
+    }
+
+    /**
+     * Method under test: {@link SolarGridFileReader#hasNext()}
+     */
+    @Test
+    void hasNext_should_returnFalse_when_ArrayIsEmpty() throws IOException {
+        try (SolarGridFileReader reader = new SolarGridFileReader(objectMapper.getFactory().createParser("[]"))) {
+            assertFalse(reader.hasNext());
+            assertThrows(NoSuchElementException.class, reader::next);
+        }
+    }
+
+    /**
+     * Method under test: {@link SolarGridFileReader#hasNext()}
+     */
+    @Test
+    void hasNext_should_throwUncheckedIOException_when_FileIsNotAnArray() throws IOException {
+        try (SolarGridFileReader reader = new SolarGridFileReader(objectMapper.getFactory().createParser("{\"name\": \"Delft\"}"))) {
+            assertThrows(UncheckedIOException.class, reader::hasNext);
+        }
+    }
+}
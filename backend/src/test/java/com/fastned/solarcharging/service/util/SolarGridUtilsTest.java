@@ -0,0 +1,49 @@
+package com.fastned.solarcharging.service.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit Test for SolarGridUtils methods
+ */
+class SolarGridUtilsTest {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Method under test: {@link SolarGridUtils#powerOutputAt(int)}
+     */
+    @Test
+    void powerOutputAt_should_matchFormula_when_SolarGridIsNotBrokenDown() {
+        for (int age = -1; age < SolarGridUtils.LIFETIME_IN_DAYS; age++) {
+            assertEquals(SolarGridUtils.calculatePowerOutput(age), SolarGridUtils.powerOutputAt(age));
+        }
+        assertEquals(0, SolarGridUtils.powerOutputAt(SolarGridUtils.LIFETIME_IN_DAYS));
+    }
+
+    /**
+     * Method under test: {@link SolarGridUtils#energyBetween(int, int)}
+     */
+    @ParameterizedTest
+    @CsvSource({"0,1", "0,61", "0,62", "59,62", "60,425", "424,426", "823,1143", "949,1007", "9000,9200", "9124,9125"})
+    void energyBetween_should_matchDayByDaySum(int fromAge, int toAge) {
+        double expected = 0;
+        for (int age = fromAge; age < Math.min(toAge, SolarGridUtils.LIFETIME_IN_DAYS); age++) {
+            expected += SolarGridUtils.calculatePowerOutput(age) * SolarGridUtils.FULL_SUN_HOURS_PER_DAY;
+        }
+
+        assertEquals(expected, SolarGridUtils.energyBetween(fromAge, toAge), DELTA);
+    }
+
+    /**
+     * Method under test: {@link SolarGridUtils#energyBetween(int, int)}
+     */
+    @Test
+    void energyBetween_should_returnZero_when_OnHoldOrBrokenDown() {
+        assertEquals(0, SolarGridUtils.energyBetween(0, SolarGridUtils.DAYS_POWER_PRODUCTION_ON_HOLD));
+        assertEquals(0, SolarGridUtils.energyBetween(SolarGridUtils.LIFETIME_IN_DAYS, SolarGridUtils.LIFETIME_IN_DAYS + 365));
+    }
+}